@@ -0,0 +1,11 @@
+package com.ai.audio.transcriber.audio;
+
+/**
+ * Speech or silence span [startByte, endByte) of the PCM data region of a WAV file.
+ */
+public record AudioRegion(long startByte, long endByte, boolean silent) {
+
+    public long length() {
+        return endByte - startByte;
+    }
+}
@@ -0,0 +1,11 @@
+package com.ai.audio.transcriber.audio;
+
+/**
+ * Byte range [startByte, endByte) of the PCM data region of a WAV file.
+ */
+public record AudioSegment(long startByte, long endByte) {
+
+    public long length() {
+        return endByte - startByte;
+    }
+}
@@ -0,0 +1,178 @@
+package com.ai.audio.transcriber.audio;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams through 16-bit PCM data computing the RMS energy of short windows, and splits it into
+ * speech and silence regions. Only one read buffer is allocated per pass and the per-sample work
+ * is plain primitive arithmetic, so an hour of audio is scanned at disk speed.
+ * <p>
+ * A window is quiet when its RMS is below the threshold (in dBFS). A quiet run becomes a silence
+ * region once it lasts {@code minSilence}; shorter pauses stay part of the surrounding speech.
+ * Leading and trailing quiet runs are always reported as silence, whatever their length.
+ */
+public class SilenceDetector {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final double FULL_SCALE = 32768.0;
+
+    private final Duration window;
+    private final double thresholdMeanSquare;
+    private final Duration minSilence;
+
+    public SilenceDetector(Duration window, double thresholdDbfs, Duration minSilence) {
+        this.window = window;
+        double amplitude = Math.pow(10, thresholdDbfs / 20) * FULL_SCALE;
+        // Compare mean squares instead of RMS so no square root is needed per window
+        this.thresholdMeanSquare = amplitude * amplitude;
+        this.minSilence = minSilence;
+    }
+
+    /**
+     * Scans the data region of a WAV resource in one sequential pass.
+     */
+    public List<AudioRegion> detect(Resource audio, WavFormat format) throws IOException {
+        try (InputStream in = audio.getInputStream()) {
+            in.skipNBytes(format.dataOffset());
+            return detect(in, format);
+        }
+    }
+
+    /**
+     * Reads {@code format.dataLength()} bytes of sample data from {@code pcm}, which must be
+     * positioned at the start of the data region.
+     */
+    public List<AudioRegion> detect(InputStream pcm, WavFormat format) throws IOException {
+        long windowBytes = Math.max(format.blockAlign(), format.bytesFor(window));
+        long windowSamples = windowBytes / 2;
+        long minSilenceBytes = format.bytesFor(minSilence);
+        long dataLength = format.dataLength();
+
+        RegionCollector regions = new RegionCollector(minSilenceBytes);
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+
+        long position = 0;      // bytes consumed
+        long windowStart = 0;
+        long windowFill = 0;    // samples accumulated in the current window
+        double sumSquares = 0;
+        int carry = -1;         // low byte of a sample split across two reads
+
+        while (position < dataLength) {
+            int read = pcm.read(buffer, 0, (int) Math.min(buffer.length, dataLength - position));
+            if (read < 0) {
+                break;
+            }
+            int i = 0;
+            if (carry >= 0 && read > 0) {
+                int sample = (short) ((buffer[0] << 8) | carry);
+                sumSquares += (double) sample * sample;
+                windowFill++;
+                carry = -1;
+                i = 1;
+                if (windowFill == windowSamples) {
+                    regions.window(windowStart, windowStart + windowBytes, sumSquares / windowSamples < thresholdMeanSquare);
+                    windowStart += windowBytes;
+                    windowFill = 0;
+                    sumSquares = 0;
+                }
+            }
+            for (; i + 1 < read; i += 2) {
+                int sample = (short) ((buffer[i + 1] << 8) | (buffer[i] & 0xFF));
+                sumSquares += (double) sample * sample;
+                if (++windowFill == windowSamples) {
+                    regions.window(windowStart, windowStart + windowBytes, sumSquares / windowSamples < thresholdMeanSquare);
+                    windowStart += windowBytes;
+                    windowFill = 0;
+                    sumSquares = 0;
+                }
+            }
+            if (i < read) {
+                carry = buffer[i] & 0xFF;
+            }
+            position += read;
+        }
+
+        // Partial last window
+        long end = windowStart + windowFill * 2;
+        if (windowFill > 0) {
+            regions.window(windowStart, end, sumSquares / windowFill < thresholdMeanSquare);
+        }
+        return regions.finish(end);
+    }
+
+    /**
+     * Span of the speech, i.e. the audio without its leading and trailing silence,
+     * widened by {@code padding} on both sides. Empty regions (all silence) give a zero-length span.
+     */
+    public static AudioSegment speechBounds(List<AudioRegion> regions, long padding, long dataLength) {
+        long start = -1;
+        long end = -1;
+        for (AudioRegion region : regions) {
+            if (!region.silent()) {
+                if (start < 0) {
+                    start = region.startByte();
+                }
+                end = region.endByte();
+            }
+        }
+        if (start < 0) {
+            return new AudioSegment(0, 0);
+        }
+        return new AudioSegment(Math.max(0, start - padding), Math.min(dataLength, end + padding));
+    }
+
+    /**
+     * Turns the stream of quiet/loud windows into alternating speech and silence regions.
+     */
+    private static class RegionCollector {
+
+        private final long minSilenceBytes;
+        private final List<AudioRegion> regions = new ArrayList<>();
+        private long speechStart = 0;
+        private long quietStart = -1;
+
+        RegionCollector(long minSilenceBytes) {
+            this.minSilenceBytes = minSilenceBytes;
+        }
+
+        void window(long start, long end, boolean quiet) {
+            if (quiet) {
+                if (quietStart < 0) {
+                    quietStart = start;
+                }
+                return;
+            }
+            if (quietStart >= 0) {
+                boolean leading = quietStart == 0;
+                if (leading || start - quietStart >= minSilenceBytes) {
+                    addSpeech(quietStart);
+                    regions.add(new AudioRegion(quietStart, start, true));
+                    speechStart = start;
+                }
+                quietStart = -1;
+            }
+        }
+
+        List<AudioRegion> finish(long end) {
+            if (quietStart >= 0) {
+                addSpeech(quietStart);
+                regions.add(new AudioRegion(quietStart, end, true));
+            } else {
+                addSpeech(end);
+            }
+            return regions;
+        }
+
+        private void addSpeech(long end) {
+            if (end > speechStart) {
+                regions.add(new AudioRegion(speechStart, end, false));
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ai.audio.transcriber.audio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Joins the transcripts of overlapping segments in order. The overlap means the start of each
+ * transcript repeats the end of the previous one; the longest matching run of words is dropped.
+ * Words are compared without case and punctuation, and the first few words of a segment may be
+ * skipped while aligning because a word cut at the segment start is often misheard.
+ */
+public class TranscriptStitcher {
+
+    private static final int MIN_MATCH_WORDS = 2;
+    private static final int MAX_LEADING_SKIP = 3;
+
+    private final int maxOverlapWords;
+
+    public TranscriptStitcher(int maxOverlapWords) {
+        this.maxOverlapWords = maxOverlapWords;
+    }
+
+    public String stitch(List<String> transcripts) {
+        List<String> words = new ArrayList<>();
+        for (String transcript : transcripts) {
+            if (transcript == null || transcript.isBlank()) {
+                continue;
+            }
+            List<String> next = List.of(transcript.trim().split("\\s+"));
+            int duplicated = overlappingPrefix(words, next);
+            words.addAll(next.subList(duplicated, next.size()));
+        }
+        return String.join(" ", words);
+    }
+
+    /**
+     * Number of leading words of {@code next} already covered by the end of {@code previous}.
+     */
+    private int overlappingPrefix(List<String> previous, List<String> next) {
+        int longest = Math.min(maxOverlapWords, Math.min(previous.size(), next.size()));
+        for (int length = longest; length >= MIN_MATCH_WORDS; length--) {
+            for (int skip = 0; skip <= MAX_LEADING_SKIP && skip + length <= next.size(); skip++) {
+                if (matches(previous, previous.size() - length, next, skip, length)) {
+                    return skip + length;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static boolean matches(List<String> a, int aStart, List<String> b, int bStart, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!normalize(a.get(aStart + i)).equals(normalize(b.get(bStart + i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String word) {
+        return word.replaceAll("[^\\p{L}\\p{N}']", "").toLowerCase(Locale.ROOT);
+    }
+}
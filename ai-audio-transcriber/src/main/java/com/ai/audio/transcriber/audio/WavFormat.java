@@ -0,0 +1,128 @@
+package com.ai.audio.transcriber.audio;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Layout of a 16-bit PCM WAV file: sample format plus where the raw sample data lives.
+ * Offsets are absolute positions in the file.
+ */
+public record WavFormat(int channels, int sampleRate, int bitsPerSample, int blockAlign, long dataOffset, long dataLength) {
+
+    public static final int HEADER_SIZE = 44;
+
+    private static final int FORMAT_PCM = 1;
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+    private static final int MAX_CHUNKS = 64;
+
+    /**
+     * Reads the RIFF header. Empty if the stream is not a WAV file or not 16-bit PCM,
+     * in which case the caller should treat the audio as opaque.
+     */
+    public static Optional<WavFormat> read(InputStream inputStream, long totalSize) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        byte[] id = new byte[4];
+
+        if (!readId(in, id) || !"RIFF".equals(ascii(id))) {
+            return Optional.empty();
+        }
+        readIntLE(in); // RIFF size, unreliable for streamed files
+        if (!readId(in, id) || !"WAVE".equals(ascii(id))) {
+            return Optional.empty();
+        }
+
+        long position = 12;
+        int audioFormat = -1, channels = 0, sampleRate = 0, bitsPerSample = 0, blockAlign = 0;
+        for (int chunk = 0; chunk < MAX_CHUNKS; chunk++) {
+            if (!readId(in, id)) {
+                return Optional.empty();
+            }
+            long chunkSize = readIntLE(in) & 0xFFFFFFFFL;
+            position += 8;
+
+            String chunkId = ascii(id);
+            if ("fmt ".equals(chunkId)) {
+                audioFormat = readShortLE(in);
+                channels = readShortLE(in);
+                sampleRate = readIntLE(in);
+                readIntLE(in); // byte rate
+                blockAlign = readShortLE(in);
+                bitsPerSample = readShortLE(in);
+                in.skipNBytes(chunkSize - 16 + (chunkSize & 1));
+            } else if ("data".equals(chunkId)) {
+                if (!(audioFormat == FORMAT_PCM || audioFormat == FORMAT_EXTENSIBLE) || bitsPerSample != 16
+                        || channels <= 0 || blockAlign != channels * 2) {
+                    return Optional.empty();
+                }
+                // Streaming encoders write 0 or 0xFFFFFFFF when the length was unknown
+                long available = totalSize - position;
+                long dataLength = (chunkSize == 0 || chunkSize > available) ? available : chunkSize;
+                dataLength -= dataLength % blockAlign;
+                return Optional.of(new WavFormat(channels, sampleRate, bitsPerSample, blockAlign, position, dataLength));
+            } else {
+                in.skipNBytes(chunkSize + (chunkSize & 1));
+            }
+            position += chunkSize + (chunkSize & 1);
+        }
+        return Optional.empty();
+    }
+
+    public long bytesPerSecond() {
+        return (long) sampleRate * blockAlign;
+    }
+
+    public long bytesFor(Duration duration) {
+        return alignDown(bytesPerSecond() * duration.toMillis() / 1000);
+    }
+
+    public Duration duration() {
+        return Duration.ofMillis(dataLength * 1000 / bytesPerSecond());
+    }
+
+    public long alignDown(long bytes) {
+        return bytes - bytes % blockAlign;
+    }
+
+    /**
+     * Canonical 44-byte PCM header for a file holding {@code dataLength} bytes of this format.
+     */
+    public byte[] header(long dataLength) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("RIFF".getBytes(StandardCharsets.US_ASCII));
+        header.putInt((int) (36 + dataLength));
+        header.put("WAVE".getBytes(StandardCharsets.US_ASCII));
+        header.put("fmt ".getBytes(StandardCharsets.US_ASCII));
+        header.putInt(16);
+        header.putShort((short) FORMAT_PCM);
+        header.putShort((short) channels);
+        header.putInt(sampleRate);
+        header.putInt((int) bytesPerSecond());
+        header.putShort((short) blockAlign);
+        header.putShort((short) bitsPerSample);
+        header.put("data".getBytes(StandardCharsets.US_ASCII));
+        header.putInt((int) dataLength);
+        return header.array();
+    }
+
+    private static boolean readId(DataInputStream in, byte[] id) throws IOException {
+        return in.readNBytes(id, 0, 4) == 4;
+    }
+
+    private static String ascii(byte[] id) {
+        return new String(id, StandardCharsets.US_ASCII);
+    }
+
+    private static int readIntLE(DataInputStream in) throws IOException {
+        return Integer.reverseBytes(in.readInt());
+    }
+
+    private static int readShortLE(DataInputStream in) throws IOException {
+        return Short.reverseBytes(in.readShort()) & 0xFFFF;
+    }
+}
@@ -0,0 +1,144 @@
+package com.ai.audio.transcriber.audio;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits long PCM WAV audio into overlapping segments that can be transcribed independently.
+ * Each cut is placed in a detected silence shortly before the target length, falling back to the
+ * quietest short window there when nobody paused, so cuts land between words rather than mid-word.
+ * The overlap gives the stitcher shared words to align on.
+ */
+public class WavSegmenter {
+
+    private static final Duration ENERGY_WINDOW = Duration.ofMillis(20);
+
+    private final SilenceDetector silenceDetector;
+    private final Duration targetSegment;
+    private final Duration overlap;
+    private final Duration searchWindow;
+    private final long maxSegmentBytes;
+
+    public WavSegmenter(SilenceDetector silenceDetector, Duration targetSegment, Duration overlap, Duration searchWindow, long maxSegmentBytes) {
+        this.silenceDetector = silenceDetector;
+        this.targetSegment = targetSegment;
+        this.overlap = overlap;
+        this.searchWindow = searchWindow;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    public List<AudioSegment> plan(Resource audio, WavFormat format) throws IOException {
+        long overlapBytes = format.bytesFor(overlap);
+        // A segment is at most one stride plus the overlap, and has to fit the provider's size limit
+        long strideBytes = format.alignDown(Math.min(
+                format.bytesFor(targetSegment),
+                maxSegmentBytes - overlapBytes - WavFormat.HEADER_SIZE));
+        long searchBytes = Math.min(format.bytesFor(searchWindow), strideBytes / 2);
+
+        List<AudioSegment> segments = new ArrayList<>();
+        if (strideBytes <= 0) {
+            segments.add(new AudioSegment(0, format.dataLength()));
+            return segments;
+        }
+
+        // One sequential pass finds every pause; the byte-level fallback only reads the search window
+        List<AudioRegion> regions = silenceDetector.detect(audio, format);
+
+        long start = 0;
+        long lastCut = 0;
+        while (format.dataLength() - lastCut > strideBytes) {
+            long target = lastCut + strideBytes;
+            long cut = silencePoint(regions, format, target - searchBytes, target);
+            if (cut < 0) {
+                cut = quietestPoint(audio, format, target - searchBytes, target);
+            }
+            segments.add(new AudioSegment(start, cut));
+            lastCut = cut;
+            start = Math.max(0, cut - overlapBytes);
+        }
+        segments.add(new AudioSegment(start, format.dataLength()));
+        return segments;
+    }
+
+    /**
+     * Builds a standalone WAV file (header plus sample data) for one segment.
+     */
+    public Resource extract(Resource audio, WavFormat format, AudioSegment segment) throws IOException {
+        byte[] header = format.header(segment.length());
+        byte[] wav = new byte[header.length + (int) segment.length()];
+        System.arraycopy(header, 0, wav, 0, header.length);
+
+        try (InputStream in = audio.getInputStream()) {
+            in.skipNBytes(format.dataOffset() + segment.startByte());
+            int read = in.readNBytes(wav, header.length, (int) segment.length());
+            if (read != segment.length()) {
+                throw new IOException("Audio ended before segment " + segment + " was read");
+            }
+        }
+        return new ByteArrayResource(wav);
+    }
+
+    /**
+     * Middle of the longest stretch of detected silence within [from, to), or -1 if there is none.
+     */
+    private static long silencePoint(List<AudioRegion> regions, WavFormat format, long from, long to) {
+        long best = -1;
+        long bestLength = 0;
+        for (AudioRegion region : regions) {
+            if (!region.silent() || region.endByte() <= from) {
+                continue;
+            }
+            if (region.startByte() >= to) {
+                break;
+            }
+            long start = Math.max(region.startByte(), from);
+            long end = Math.min(region.endByte(), to);
+            if (end - start > bestLength) {
+                bestLength = end - start;
+                best = start + format.alignDown((end - start) / 2);
+            }
+        }
+        return bestLength > 0 ? best : -1;
+    }
+
+    /**
+     * Position (relative to the data region) in the middle of the lowest-energy window within [from, to).
+     */
+    private long quietestPoint(Resource audio, WavFormat format, long from, long to) throws IOException {
+        int windowBytes = (int) Math.max(format.blockAlign(), format.bytesFor(ENERGY_WINDOW));
+        byte[] window = new byte[windowBytes];
+
+        long quietest = to;
+        double lowestEnergy = Double.MAX_VALUE;
+        try (InputStream in = audio.getInputStream()) {
+            in.skipNBytes(format.dataOffset() + from);
+            for (long position = from; position + windowBytes <= to; position += windowBytes) {
+                if (in.readNBytes(window, 0, windowBytes) < windowBytes) {
+                    break;
+                }
+                double energy = meanSquare(window, windowBytes);
+                if (energy < lowestEnergy) {
+                    lowestEnergy = energy;
+                    quietest = position + format.alignDown(windowBytes / 2);
+                }
+            }
+        }
+        return quietest;
+    }
+
+    private static double meanSquare(byte[] pcm, int length) {
+        double sum = 0;
+        int samples = length / 2;
+        for (int i = 0; i + 1 < length; i += 2) {
+            int sample = (short) ((pcm[i + 1] << 8) | (pcm[i] & 0xFF));
+            sum += (double) sample * sample;
+        }
+        return samples == 0 ? 0 : sum / samples;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ai.audio.transcriber.audio;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * A standalone WAV file made of a fresh header plus one slice of another WAV's sample data.
+ * Nothing is copied up front: every {@link #getInputStream()} streams the slice from the source.
+ */
+public class WavSliceResource extends AbstractResource {
+
+    private final Resource source;
+    private final WavFormat format;
+    private final AudioSegment slice;
+
+    public WavSliceResource(Resource source, WavFormat format, AudioSegment slice) {
+        this.source = source;
+        this.format = format;
+        this.slice = slice;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        InputStream data = source.getInputStream();
+        try {
+            data.skipNBytes(format.dataOffset() + slice.startByte());
+        } catch (IOException e) {
+            data.close();
+            throw e;
+        }
+        InputStream header = new ByteArrayInputStream(format.header(slice.length()));
+        return new SequenceInputStream(header, new BoundedInputStream(data, slice.length()));
+    }
+
+    @Override
+    public long contentLength() {
+        return WavFormat.HEADER_SIZE + slice.length();
+    }
+
+    @Override
+    public String getFilename() {
+        return source.getFilename();
+    }
+
+    @Override
+    public String getDescription() {
+        return "WAV slice " + slice + " of " + source.getDescription();
+    }
+
+    private static class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
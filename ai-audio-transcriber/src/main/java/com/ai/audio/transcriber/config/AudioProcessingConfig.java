@@ -0,0 +1,21 @@
+package com.ai.audio.transcriber.config;
+
+import com.ai.audio.transcriber.audio.SilenceDetector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class AudioProcessingConfig {
+
+    // Shared by silence trimming and by the segmenter when picking cut points
+    @Bean
+    public SilenceDetector silenceDetector(
+            @Value("${transcription.silence.window:20ms}") Duration window,
+            @Value("${transcription.silence.threshold-db:-45}") double thresholdDbfs,
+            @Value("${transcription.silence.min-silence:500ms}") Duration minSilence) {
+        return new SilenceDetector(window, thresholdDbfs, minSilence);
+    }
+}
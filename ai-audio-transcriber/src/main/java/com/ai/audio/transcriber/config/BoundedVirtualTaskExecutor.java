@@ -0,0 +1,89 @@
+package com.ai.audio.transcriber.config;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One virtual thread per task, bounded like the platform pools it replaces: at most
+ * {@code maxInFlight} tasks are accepted (beyond that {@link #execute} throws
+ * TaskRejectedException, same as a full pool queue) and at most {@code maxRunning} of them run at
+ * once. The others park on their own virtual thread, never on the submitter.
+ * <p>
+ * SimpleAsyncTaskExecutor's own concurrency limit blocks the submitting thread instead of
+ * rejecting, which would turn a full job queue into a hanging request rather than a 503.
+ * <p>
+ * On context close new tasks are rejected and accepted ones get up to {@code terminationTimeout}
+ * to finish (like setWaitForTasksToCompleteOnShutdown on the pools); anything still running
+ * after that is interrupted.
+ */
+class BoundedVirtualTaskExecutor extends SimpleAsyncTaskExecutor {
+
+    // How long close() waits for interrupted stragglers after the drain
+    private static final long STRAGGLER_TIMEOUT_MILLIS = 5_000;
+
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Semaphore running;
+    private final Duration terminationTimeout;
+    private volatile boolean closing;
+
+    BoundedVirtualTaskExecutor(String threadNamePrefix, int maxInFlight, int maxRunning, Duration terminationTimeout) {
+        super(threadNamePrefix);
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.running = new Semaphore(maxRunning);
+        this.terminationTimeout = terminationTimeout;
+        setVirtualThreads(true);
+        // Carries the current observation over, so task spans join the trace of the submitter
+        setTaskDecorator(new ContextPropagatingTaskDecorator());
+        // Tracks the task threads so close() can interrupt and wait for whatever outlives the drain
+        setTaskTerminationTimeout(STRAGGLER_TIMEOUT_MILLIS);
+    }
+
+    @Override
+    protected void doExecute(Runnable task) {
+        if (closing) {
+            throw new TaskRejectedException(getThreadNamePrefix() + " executor is shutting down");
+        }
+        if (!inFlight.tryAcquire()) {
+            throw new TaskRejectedException(getThreadNamePrefix() + " executor reached " + maxInFlight + " in-flight tasks");
+        }
+        try {
+            super.doExecute(() -> {
+                try {
+                    running.acquireUninterruptibly();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            // The thread never started, so the task never gets to give its permit back
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        closing = true;
+        try {
+            // All permits back means every accepted task has finished
+            if (inFlight.tryAcquire(maxInFlight, terminationTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                inFlight.release(maxInFlight);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        super.close();
+    }
+}
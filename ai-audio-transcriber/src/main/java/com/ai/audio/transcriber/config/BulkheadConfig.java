@@ -0,0 +1,48 @@
+package com.ai.audio.transcriber.config;
+
+import com.ai.audio.transcriber.service.ProviderBulkhead;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * One bulkhead per provider path, configured under transcription.bulkhead.{gemini,whisper,summarize}.
+ * Each caps the calls in flight and the callers waiting for a slot, so a slow provider holds at most
+ * max-concurrent + max-waiting request threads and the rest of the app (OpenAI, /history) keeps working.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    @Bean(name = "geminiBulkhead")
+    public ProviderBulkhead geminiBulkhead(Environment environment) {
+        return bulkhead(environment, "gemini", "Gemini", 20);
+    }
+
+    @Bean(name = "whisperBulkhead")
+    public ProviderBulkhead whisperBulkhead(Environment environment) {
+        return bulkhead(environment, "whisper", "Whisper", 20);
+    }
+
+    @Bean(name = "summarizeBulkhead")
+    public ProviderBulkhead summarizeBulkhead(Environment environment) {
+        return bulkhead(environment, "summarize", "Analysis", 20);
+    }
+
+    private static ProviderBulkhead bulkhead(Environment environment, String key, String displayName, int defaultMaxConcurrent) {
+        String prefix = "transcription.bulkhead." + key + ".";
+        int maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class, defaultMaxConcurrent);
+        return new ProviderBulkhead(
+                displayName,
+                maxConcurrent,
+                environment.getProperty(prefix + "max-waiting", Integer.class, maxConcurrent),
+                environment.getProperty(prefix + "max-wait", Duration.class, Duration.ofSeconds(2)),
+                environment.getProperty(prefix + "retry-after", Duration.class, Duration.ofSeconds(10)),
+                // Optional AIMD mode, the limit moves between min-concurrent and max-concurrent
+                environment.getProperty(prefix + "adaptive", Boolean.class, false),
+                environment.getProperty(prefix + "min-concurrent", Integer.class, Math.min(2, maxConcurrent)),
+                environment.getProperty(prefix + "target-latency", Duration.class, Duration.ofSeconds(60)),
+                environment.getProperty(prefix + "backoff-ratio", Double.class, 0.9));
+    }
+}
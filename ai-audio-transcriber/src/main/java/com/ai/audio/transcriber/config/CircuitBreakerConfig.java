@@ -0,0 +1,59 @@
+package com.ai.audio.transcriber.config;
+
+import com.ai.audio.transcriber.service.ProviderCircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * One circuit breaker per provider path, configured under transcription.circuit-breaker.{gemini,openai}.
+ * The OpenAI breaker covers both Whisper and the chat summary, since that path needs both.
+ * State and rates are published as gauges, e.g.
+ * /actuator/metrics/transcription.circuit.state?tag=provider:gemini (0 closed, 1 open, 2 half-open).
+ */
+@Configuration
+public class CircuitBreakerConfig {
+
+    @Bean(name = "geminiCircuitBreaker")
+    public ProviderCircuitBreaker geminiCircuitBreaker(Environment environment, MeterRegistry meterRegistry) {
+        return register(circuitBreaker(environment, "gemini", "Gemini", Duration.ofMinutes(2)), "gemini", meterRegistry);
+    }
+
+    @Bean(name = "openAiCircuitBreaker")
+    public ProviderCircuitBreaker openAiCircuitBreaker(Environment environment, MeterRegistry meterRegistry) {
+        return register(circuitBreaker(environment, "openai", "OpenAI", Duration.ofMinutes(2)), "openai", meterRegistry);
+    }
+
+    private static ProviderCircuitBreaker circuitBreaker(Environment environment, String key, String displayName, Duration defaultSlowCall) {
+        String prefix = "transcription.circuit-breaker." + key + ".";
+        return new ProviderCircuitBreaker(
+                displayName,
+                Clock.systemUTC(),
+                environment.getProperty(prefix + "window-size", Integer.class, 20),
+                environment.getProperty(prefix + "minimum-calls", Integer.class, 10),
+                environment.getProperty(prefix + "failure-rate-threshold", Double.class, 0.5),
+                environment.getProperty(prefix + "slow-call-threshold", Duration.class, defaultSlowCall),
+                environment.getProperty(prefix + "slow-call-rate-threshold", Double.class, 0.8),
+                environment.getProperty(prefix + "open-duration", Duration.class, Duration.ofSeconds(30)),
+                environment.getProperty(prefix + "half-open-calls", Integer.class, 2));
+    }
+
+    private static ProviderCircuitBreaker register(ProviderCircuitBreaker circuitBreaker, String provider, MeterRegistry meterRegistry) {
+        Gauge.builder("transcription.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("transcription.circuit.failure.rate", circuitBreaker, ProviderCircuitBreaker::failureRate)
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("transcription.circuit.slow.call.rate", circuitBreaker, ProviderCircuitBreaker::slowCallRate)
+                .tag("provider", provider)
+                .register(meterRegistry);
+        return circuitBreaker;
+    }
+}
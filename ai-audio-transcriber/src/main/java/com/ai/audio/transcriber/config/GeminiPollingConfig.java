@@ -0,0 +1,31 @@
+package com.ai.audio.transcriber.config;
+
+import com.ai.audio.transcriber.service.BackoffFilePollingStrategy;
+import com.ai.audio.transcriber.service.FilePollingStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Configuration
+public class GeminiPollingConfig {
+
+    // Declare another FilePollingStrategy bean to replace the default backoff
+    @Bean
+    @ConditionalOnMissingBean
+    public FilePollingStrategy filePollingStrategy(
+            @Value("${gemini.poll.first-probe-delay:250ms}") Duration firstProbeDelay,
+            @Value("${gemini.poll.initial-interval:500ms}") Duration initialInterval,
+            @Value("${gemini.poll.multiplier:2.0}") double multiplier,
+            @Value("${gemini.poll.max-interval:8s}") Duration maxInterval,
+            @Value("${gemini.poll.jitter:0.2}") double jitter,
+            @Value("${gemini.poll.base-deadline:60s}") Duration baseDeadline,
+            @Value("${gemini.poll.deadline-per-mb:2s}") Duration deadlinePerMb) {
+        return new BackoffFilePollingStrategy(Clock.systemUTC(), () -> ThreadLocalRandom.current().nextDouble(),
+                firstProbeDelay, initialInterval, multiplier, maxInterval, jitter, baseDeadline, deadlinePerMb);
+    }
+}
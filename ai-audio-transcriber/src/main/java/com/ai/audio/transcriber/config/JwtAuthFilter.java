@@ -1,29 +1,53 @@
 package com.ai.audio.transcriber.config;
 
+import com.ai.audio.transcriber.model.AuthenticatedUser;
+import com.ai.audio.transcriber.service.AuthenticatedUserCache;
 import com.ai.audio.transcriber.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Optional;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final AuthenticatedUserCache authenticatedUserCache;
+    // This filter only runs on the first dispatch. Async results (/reactive, /stream) are written on
+    // an ASYNC dispatch of the same request, which reloads the context from this request attribute.
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
 
-    public JwtAuthFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    // Build the principal from the uid/role claims instead of loading the user on every request.
+    // Tokens without those claims (issued before they existed) still go through the user lookup.
+    private final boolean stateless;
+
+    public JwtAuthFilter(JwtService jwtService,
+                         UserDetailsService userDetailsService,
+                         AuthenticatedUserCache authenticatedUserCache,
+                         @Value("${application.security.jwt.stateless:true}") boolean stateless) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.authenticatedUserCache = authenticatedUserCache;
+        this.stateless = stateless;
     }
 
     @Override
@@ -34,7 +58,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
+        final Claims claims;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -42,25 +66,45 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+        try {
+            // The one signature check of this request (none at all if the token was seen before)
+            claims = jwtService.verifiedClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Invalid or expired token: carry on unauthenticated, protected endpoints will reject the request
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final String userEmail = claims.getSubject();
 
-        // If user is found and not currently authenticated
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (userEmail == null || SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Optional<AuthenticatedUser> principal = stateless ? jwtService.principal(claims) : Optional.empty();
+        if (principal.isPresent()) {
+            // No user query here; the revocation check hits the database at most once per TTL per user
+            if (authenticatedUserCache.isActive(principal.get())) {
+                authenticate(principal.get(), principal.get().authorities(), request, response);
+            }
+        } else {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (userEmail.equals(userDetails.getUsername())) {
                 // Token is valid, update security context
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                authenticate(userDetails, userDetails.getAuthorities(), request, response);
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private void authenticate(Object principal, Collection<? extends GrantedAuthority> authorities,
+                              HttpServletRequest request, HttpServletResponse response) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authToken);
+        SecurityContextHolder.setContext(context);
+        securityContextRepository.saveContext(context, request, response);
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.ai.audio.transcriber.config;
 
 import com.ai.audio.transcriber.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -39,6 +40,9 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configure(http))
                 .authorizeHttpRequests(auth -> auth
+                        // Async results are written on a second dispatch of a request that was already
+                        // authorized, and error pages must render for any request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         // Public endpoints for registration/login
                         .requestMatchers("/api/auth/**").permitAll()
 
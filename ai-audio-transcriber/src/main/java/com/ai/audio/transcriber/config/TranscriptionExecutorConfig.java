@@ -0,0 +1,109 @@
+package com.ai.audio.transcriber.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+@Configuration
+public class TranscriptionExecutorConfig {
+
+    // Same grace period for running tasks on shutdown in both threading modes
+    private static final Duration TERMINATION_TIMEOUT = Duration.ofSeconds(60);
+
+    /**
+     * Worker pool for the job API. Both the pool and its queue are bounded so a burst of
+     * submissions is rejected (503) instead of piling up temp files and memory.
+     */
+    @Bean(name = "transcriptionExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor transcriptionExecutor(
+            @Value("${transcription.executor.core-size:4}") int coreSize,
+            @Value("${transcription.executor.max-size:8}") int maxSize,
+            @Value("${transcription.executor.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("transcription-");
+        // Carries the current observation over, so job spans join the trace of the submitting request
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        // Let running jobs finish on shutdown rather than leaving half-written records
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds((int) TERMINATION_TIMEOUT.toSeconds());
+        return executor;
+    }
+
+    /**
+     * Runs the Whisper calls for the segments of long recordings. The pool size caps how many
+     * segments are in flight across all transcriptions; extra segments wait in the queue.
+     */
+    @Bean(name = "segmentTranscriptionExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor segmentTranscriptionExecutor(
+            @Value("${transcription.segmented.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("transcription-segment-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        return executor;
+    }
+
+    /**
+     * Background summaries of the pipelined OpenAI path. A summary rejected by the full queue is
+     * not run on the request thread (that would hold the response the pipeline is meant to release);
+     * AsyncAnalysisService marks the record FAILED instead, and the next upload of the audio retries it.
+     */
+    @Bean(name = "analysisExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor analysisExecutor(
+            @Value("${transcription.analysis.executor.core-size:4}") int coreSize,
+            @Value("${transcription.analysis.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(coreSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("analysis-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds((int) TERMINATION_TIMEOUT.toSeconds());
+        return executor;
+    }
+
+    /**
+     * Virtual-thread variant, active with spring.threads.virtual.enabled=true on Java 21+.
+     * Every job gets its own virtual thread, so the blocking provider calls and polls only park
+     * the job instead of holding a platform thread. In-flight jobs are still capped so a flood of
+     * submissions is rejected rather than exhausting temp disk or the provider quotas.
+     */
+    @Bean(name = "transcriptionExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualTranscriptionExecutor(
+            @Value("${transcription.executor.virtual.max-in-flight:2000}") int maxInFlight) {
+        return new BoundedVirtualTaskExecutor("transcription-vt-", maxInFlight, maxInFlight, TERMINATION_TIMEOUT);
+    }
+
+    // Segments wait on their own virtual thread for one of the `parallelism` slots, the queue is unbounded as above
+    @Bean(name = "segmentTranscriptionExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualSegmentTranscriptionExecutor(
+            @Value("${transcription.segmented.parallelism:4}") int parallelism) {
+        return new BoundedVirtualTaskExecutor("transcription-segment-vt-", Integer.MAX_VALUE, parallelism, TERMINATION_TIMEOUT);
+    }
+
+    // Same limits as the platform pool: core-size summaries at once, queue-capacity more waiting
+    @Bean(name = "analysisExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualAnalysisExecutor(
+            @Value("${transcription.analysis.executor.core-size:4}") int coreSize,
+            @Value("${transcription.analysis.executor.queue-capacity:100}") int queueCapacity) {
+        return new BoundedVirtualTaskExecutor("analysis-vt-", coreSize + queueCapacity, coreSize, TERMINATION_TIMEOUT);
+    }
+}
@@ -1,14 +1,116 @@
-//package com.ai.audio.transcriber.config;
-//
-//import org.springframework.context.annotation.Bean;
-//import org.springframework.context.annotation.Configuration;
-//import org.springframework.web.reactive.function.client.WebClient;
-//
-//@Configuration
-//public class WebClientConfig {
-//
-//    @Bean
-//    public WebClient webClient() {
-//        return WebClient.create();
-//    }
-//}
+package com.ai.audio.transcriber.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorNettyClientRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Outbound HTTP for the AI providers. Each provider host gets its own bounded Reactor Netty
+ * connection pool, so a slow Gemini cannot take the connections OpenAI needs (and vice versa),
+ * and callers queue for a connection for a bounded time instead of opening sockets without limit.
+ * Pool metrics (reactor.netty.connection.provider.*) show up under /actuator/metrics, e.g.
+ * pending.connections is the number of requests waiting for a connection.
+ * <p>
+ * Response timeouts are set per call type by the clients themselves (upload, generate, poll, ...).
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Bean(name = "geminiHttpClient")
+    public HttpClient geminiHttpClient(
+            @Value("${gemini.http.max-connections:50}") int maxConnections,
+            @Value("${gemini.http.pending-acquire-max:500}") int pendingAcquireMax,
+            @Value("${gemini.http.pending-acquire-timeout:10s}") Duration pendingAcquireTimeout,
+            @Value("${gemini.http.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${gemini.http.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${gemini.http.http2:true}") boolean http2) {
+        return providerHttpClient("gemini", maxConnections, pendingAcquireMax, pendingAcquireTimeout, maxIdleTime, connectTimeout, http2);
+    }
+
+    @Bean(name = "openAiHttpClient")
+    public HttpClient openAiHttpClient(
+            @Value("${openai.http.max-connections:50}") int maxConnections,
+            @Value("${openai.http.pending-acquire-max:500}") int pendingAcquireMax,
+            @Value("${openai.http.pending-acquire-timeout:10s}") Duration pendingAcquireTimeout,
+            @Value("${openai.http.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${openai.http.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${openai.http.http2:true}") boolean http2) {
+        return providerHttpClient("openai", maxConnections, pendingAcquireMax, pendingAcquireTimeout, maxIdleTime, connectTimeout, http2);
+    }
+
+    /**
+     * WebClient for the Gemini Files API and generateContent. Built from the Boot builder so it keeps
+     * the codecs and the http.client.requests observation, but on the Gemini pool.
+     */
+    @Bean(name = "geminiWebClient")
+    public WebClient geminiWebClient(WebClient.Builder webClientBuilder,
+                                     @Qualifier("geminiHttpClient") HttpClient geminiHttpClient,
+                                     @Value("${gemini.http.max-response-size:16MB}") DataSize maxResponseSize) {
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(geminiHttpClient))
+                // generateContent for a long recording is well past the 256KB codec default
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) maxResponseSize.toBytes()))
+                .build();
+    }
+
+    /**
+     * The only other RestClient/WebClient users are Spring AI's OpenAI models (chat and whisper),
+     * so the Boot builders default to the OpenAI pool. The chat response timeout applies here;
+     * WhisperClient sets its own, longer one.
+     */
+    @Bean
+    public RestClientCustomizer openAiRestClientCustomizer(@Qualifier("openAiHttpClient") HttpClient openAiHttpClient,
+                                                           @Value("${openai.http.timeout.chat:2m}") Duration chatTimeout) {
+        return builder -> builder.requestFactory(openAiRequestFactory(openAiHttpClient, chatTimeout));
+    }
+
+    // Used by the streaming chat call (summarizeStream); Gemini replaces the connector with its own
+    @Bean
+    public WebClientCustomizer openAiWebClientCustomizer(@Qualifier("openAiHttpClient") HttpClient openAiHttpClient,
+                                                         @Value("${openai.http.timeout.chat:2m}") Duration chatTimeout) {
+        return builder -> builder.clientConnector(new ReactorClientHttpConnector(openAiHttpClient.responseTimeout(chatTimeout)));
+    }
+
+    private static ReactorNettyClientRequestFactory openAiRequestFactory(HttpClient openAiHttpClient, Duration readTimeout) {
+        ReactorNettyClientRequestFactory requestFactory = new ReactorNettyClientRequestFactory(openAiHttpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
+    }
+
+    private static HttpClient providerHttpClient(String name, int maxConnections, int pendingAcquireMax,
+                                                 Duration pendingAcquireTimeout, Duration maxIdleTime,
+                                                 Duration connectTimeout, boolean http2) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                // Idle keep-alive connections are reused, but closed before the server or a proxy drops them
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true);
+        if (http2) {
+            // Negotiated over TLS (ALPN); servers without HTTP/2 get HTTP/1.1
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        return httpClient;
+    }
+}
@@ -6,13 +6,13 @@ import com.ai.audio.transcriber.dto.RegisterRequest;
 import com.ai.audio.transcriber.model.Role;
 import com.ai.audio.transcriber.model.User;
 import com.ai.audio.transcriber.repository.UserRepository;
-import com.ai.audio.transcriber.service.CustomUserDetailsService;
 import com.ai.audio.transcriber.service.JwtService; // New import
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager; // New import
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken; // New import
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,18 +24,15 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService; // New dependency
     private final AuthenticationManager authenticationManager; // New dependency
-    private final CustomUserDetailsService userDetailsService; // Dependency needed for UserDetails
 
     public AuthController(UserRepository userRepository,
                           PasswordEncoder passwordEncoder,
                           JwtService jwtService,
-                          AuthenticationManager authenticationManager,
-                          CustomUserDetailsService userDetailsService) {
+                          AuthenticationManager authenticationManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
-        this.userDetailsService = userDetailsService;
     }
 
     @PostMapping("/register")
@@ -52,9 +49,8 @@ public class AuthController {
         userRepository.save(user);
 
         // Optional: Log the user in immediately after registration
-        // We get the UserDetails from the service
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        String token = jwtService.generateToken(userDetails);
+        // The saved user has its id now, which goes into the token
+        String token = jwtService.generateToken(user);
 
         return ResponseEntity.ok(new AuthResponse(token, "Registration successful."));
     }
@@ -70,8 +66,10 @@ public class AuthController {
         // Retrieve the UserDetails from the successful authentication object
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
-        // 3. Generate the JWT
-        String token = jwtService.generateToken(userDetails);
+        // 3. Generate the JWT, with the user id and role as claims so later requests skip the user lookup
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        String token = jwtService.generateToken(user);
 
         // 4. Return the token to the client
         return ResponseEntity.ok(new AuthResponse(token, "Login successful"));
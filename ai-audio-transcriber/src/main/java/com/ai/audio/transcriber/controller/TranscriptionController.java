@@ -52,36 +52,50 @@
 
 package com.ai.audio.transcriber.controller;
 
+import com.ai.audio.transcriber.dto.TranscriptionDetail;
+import com.ai.audio.transcriber.dto.TranscriptionHistoryPage;
+import com.ai.audio.transcriber.dto.TranscriptionJobResponse;
 import com.ai.audio.transcriber.dto.TranscriptionResult;
-import com.ai.audio.transcriber.model.TranscriptionRecord;
+import com.ai.audio.transcriber.dto.TranscriptionStreamEvent;
+import com.ai.audio.transcriber.model.TranscriptionJob;
+import com.ai.audio.transcriber.service.TranscriptionJobService;
 import com.ai.audio.transcriber.service.TranscriptionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
-import java.util.List;
+import java.net.URI;
 
 @RestController
 @RequestMapping("/api/transcribe")
 public class TranscriptionController {
 
+    private static final Logger log = LoggerFactory.getLogger(TranscriptionController.class);
+
     private final TranscriptionService transcriptionService;
+    private final TranscriptionJobService transcriptionJobService;
 
 
-    public TranscriptionController(TranscriptionService transcriptionService) {
+    public TranscriptionController(TranscriptionService transcriptionService, TranscriptionJobService transcriptionJobService) {
         this.transcriptionService = transcriptionService;
+        this.transcriptionJobService = transcriptionJobService;
     }
 
     @PostMapping
     public ResponseEntity<TranscriptionResult> transcribeAudio(@RequestParam("file") MultipartFile file, @RequestParam(value = "model", defaultValue = "gemini") String model) throws IOException {
 
         if (file == null || file.isEmpty()) {
-            System.out.println("No file received!");
+            log.warn("No file received");
         } else {
-            System.out.println("File received: " + file.getOriginalFilename());
-            System.out.println("File size: " + file.getSize() + " bytes");
-            System.out.println("Content type: " + file.getContentType());
+            log.debug("File received name={} bytes={} contentType={}", file.getOriginalFilename(), file.getSize(), file.getContentType());
         }
 
         TranscriptionResult result = transcriptionService.transcribeAndAnalyze(file,model);
@@ -90,14 +104,60 @@ public class TranscriptionController {
         return ResponseEntity.ok(result);
     }
 
-    @GetMapping("/history")
-    public ResponseEntity<List<TranscriptionRecord>> getHistory() {
+    /**
+     * Reactive Gemini endpoint. The request thread is released as soon as the upload is spooled;
+     * the response is written when the Gemini pipeline completes.
+     */
+    @PostMapping("/reactive")
+    public Mono<TranscriptionResult> transcribeAudioReactive(@RequestParam("file") MultipartFile file) throws IOException {
+        return transcriptionService.transcribeAndAnalyzeReactive(file);
+    }
 
+    /**
+     * Streaming mode (text/event-stream): stage events right away, then the transcript and analysis
+     * as the providers produce them, and finally a {@code result} event with the saved record.
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<TranscriptionStreamEvent>> transcribeAudioStream(@RequestParam("file") MultipartFile file, @RequestParam(value = "model", defaultValue = "gemini") String model) throws IOException {
+        return transcriptionService.transcribeAndAnalyzeStream(file, model);
+    }
 
-        List<TranscriptionRecord> history = transcriptionService.getHistory();
+    /**
+     * Job-submission mode: queues the transcription and returns 202 with the job id straight away.
+     * Poll the Location header (GET /api/transcribe/jobs/{id}) for status and result.
+     * Job ids are held in memory by the instance that accepted them and do not survive a restart;
+     * the finished record stays available through /history.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<TranscriptionJobResponse> submitTranscriptionJob(@RequestParam("file") MultipartFile file, @RequestParam(value = "model", defaultValue = "gemini") String model) throws IOException {
+        TranscriptionJob job = transcriptionJobService.submit(file, model);
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+
+        return ResponseEntity.accepted().location(location).body(TranscriptionJobResponse.from(job));
+    }
 
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<TranscriptionJobResponse> getTranscriptionJob(@PathVariable("id") String id) {
+        return ResponseEntity.ok(TranscriptionJobResponse.from(transcriptionJobService.getJob(id)));
+    }
 
-        return ResponseEntity.ok(history);
+    /**
+     * Newest first, {@code limit} rows per page (max 100) with text previews only.
+     * Follow {@code nextCursor} for older records; full text is at /history/{id}.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<TranscriptionHistoryPage> getHistory(@RequestParam(value = "cursor", required = false) String cursor,
+                                                               @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(transcriptionService.getHistory(cursor, limit));
+    }
+
+    @GetMapping("/history/{id}")
+    public ResponseEntity<TranscriptionDetail> getHistoryItem(@PathVariable("id") Long id) {
+        return ResponseEntity.ok(transcriptionService.getRecord(id));
     }
 }
 
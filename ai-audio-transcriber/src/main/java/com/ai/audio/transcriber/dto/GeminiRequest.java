@@ -1,9 +1,12 @@
 package com.ai.audio.transcriber.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
+import java.util.Map;
 
-public record GeminiRequest(List<Content> contents) {
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GeminiRequest(List<Content> contents, GenerationConfig generationConfig) {
 
     public record Content(List<Part> parts) {}
 
@@ -18,4 +21,25 @@ public record GeminiRequest(List<Content> contents) {
             @JsonProperty("mime_type") String mimeType,
             @JsonProperty("file_uri") String fileUri
     ) {}
-}
\ No newline at end of file
+
+    // Structured output: with responseMimeType application/json the answer follows responseSchema
+    public record GenerationConfig(String responseMimeType, Schema responseSchema) {}
+
+    // The OpenAPI subset Gemini accepts; propertyOrdering fixes the order the fields are generated in
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Schema(
+            String type,
+            Map<String, Schema> properties,
+            Schema items,
+            List<String> required,
+            List<String> propertyOrdering
+    ) {
+        public static Schema string() {
+            return new Schema("STRING", null, null, null, null);
+        }
+
+        public static Schema array(Schema items) {
+            return new Schema("ARRAY", null, items, null, null);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ai.audio.transcriber.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * The parts of a GenerateContentResponse we use. Decoded straight from the response body, so
+ * everything else (safety ratings, usage metadata, ...) is skipped by the parser, never stored.
+ * Also the shape of every chunk of streamGenerateContent.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GeminiResponse(List<Candidate> candidates) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Candidate(Content content) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Content(List<Part> parts) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Part(String text) {}
+
+    // All text parts of the first candidate; long answers can come split over several parts
+    public String text() {
+        if (candidates == null || candidates.isEmpty()) {
+            return "";
+        }
+        Candidate candidate = candidates.get(0);
+        if (candidate == null || candidate.content() == null || candidate.content().parts() == null) {
+            return "";
+        }
+        List<Part> parts = candidate.content().parts();
+        if (parts.size() == 1) {
+            return parts.get(0).text() != null ? parts.get(0).text() : "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (Part part : parts) {
+            if (part.text() != null) {
+                text.append(part.text());
+            }
+        }
+        return text.toString();
+    }
+}
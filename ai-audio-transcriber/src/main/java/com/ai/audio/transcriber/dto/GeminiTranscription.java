@@ -0,0 +1,17 @@
+package com.ai.audio.transcriber.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * The structured answer Gemini gives on the transcription path (see GeminiClient's response schema):
+ * the verbatim transcript plus the analysis, as separate fields.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GeminiTranscription(String transcript, String title, String summary, List<String> keyPoints) {
+
+    public GeminiTranscription {
+        keyPoints = keyPoints != null ? List.copyOf(keyPoints) : List.of();
+    }
+}
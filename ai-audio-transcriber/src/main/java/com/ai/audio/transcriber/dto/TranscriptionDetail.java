@@ -0,0 +1,36 @@
+package com.ai.audio.transcriber.dto;
+
+import com.ai.audio.transcriber.model.AnalysisStatus;
+import com.ai.audio.transcriber.model.TranscriptionRecord;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Full text of a single record, returned by GET /api/transcribe/history/{id}.
+ */
+public record TranscriptionDetail(
+        Long id,
+        String originalFileName,
+        LocalDateTime createdDate,
+        String model,
+        String transcription,
+        String analysis,
+        AnalysisStatus analysisStatus,
+        String title,
+        List<String> keyPoints
+) {
+    public static TranscriptionDetail from(TranscriptionRecord record) {
+        return new TranscriptionDetail(
+                record.getId(),
+                record.getOriginalFileName(),
+                record.getCreatedDate(),
+                record.getModel(),
+                record.getFullTranscription(),
+                record.getAiAnalysis(),
+                record.getAnalysisStatus(),
+                record.getTitle(),
+                record.getKeyPoints()
+        );
+    }
+}
@@ -0,0 +1,23 @@
+package com.ai.audio.transcriber.dto;
+
+import com.ai.audio.transcriber.model.AnalysisStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the history list. Built directly by the repository query (constructor projection),
+ * so only the first characters of the transcript and analysis ever leave the database.
+ */
+public record TranscriptionHistoryItem(
+        Long id,
+        String originalFileName,
+        LocalDateTime createdDate,
+        String transcriptionPreview,
+        String analysisPreview,
+        AnalysisStatus analysisStatus
+) {
+    // Matches the JPQL constructor expression; old rows have no analysis status
+    public TranscriptionHistoryItem {
+        analysisStatus = analysisStatus != null ? analysisStatus : AnalysisStatus.COMPLETED;
+    }
+}
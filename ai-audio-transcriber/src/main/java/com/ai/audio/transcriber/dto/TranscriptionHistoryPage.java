@@ -0,0 +1,9 @@
+package com.ai.audio.transcriber.dto;
+
+import java.util.List;
+
+/**
+ * A page of history, newest first. Pass {@code nextCursor} back as {@code cursor} to get the
+ * next page; it is null on the last page.
+ */
+public record TranscriptionHistoryPage(List<TranscriptionHistoryItem> items, String nextCursor) {}
@@ -0,0 +1,34 @@
+package com.ai.audio.transcriber.dto;
+
+import com.ai.audio.transcriber.model.JobStatus;
+import com.ai.audio.transcriber.model.TranscriptionJob;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing a transcription job. {@code result} is only set once the job is COMPLETED,
+ * {@code error} only once it FAILED. Upload progress is reported for the Gemini path.
+ */
+public record TranscriptionJobResponse(
+        String jobId,
+        JobStatus status,
+        String originalFileName,
+        LocalDateTime submittedDate,
+        long uploadedBytes,
+        long totalBytes,
+        TranscriptionResult result,
+        String error
+) {
+    public static TranscriptionJobResponse from(TranscriptionJob job) {
+        return new TranscriptionJobResponse(
+                job.getId(),
+                job.getStatus(),
+                job.getOriginalFileName(),
+                job.getSubmittedDate(),
+                job.getUploadedBytes(),
+                job.getTotalBytes(),
+                job.getResult(),
+                job.getError()
+        );
+    }
+}
@@ -1,4 +1,30 @@
 package com.ai.audio.transcriber.dto;
 
-public record TranscriptionResult(String transcription, String analysis, Long recordId) {}
+import com.ai.audio.transcriber.model.AnalysisStatus;
+import com.ai.audio.transcriber.model.TranscriptionRecord;
 
+import java.util.List;
+
+/**
+ * {@code analysis} is null while {@code analysisStatus} is PENDING (pipelined OpenAI path);
+ * poll GET /api/transcribe/history/{recordId} until it is COMPLETED.
+ * {@code title} and {@code keyPoints} come with Gemini's structured output only.
+ */
+public record TranscriptionResult(String transcription, String analysis, Long recordId, AnalysisStatus analysisStatus,
+                                  String title, List<String> keyPoints) {
+
+    public TranscriptionResult(String transcription, String analysis, Long recordId, AnalysisStatus analysisStatus) {
+        this(transcription, analysis, recordId, analysisStatus, null, List.of());
+    }
+
+    public static TranscriptionResult from(TranscriptionRecord record) {
+        return new TranscriptionResult(
+                record.getFullTranscription(),
+                record.getAiAnalysis(),
+                record.getId(),
+                record.getAnalysisStatus(),
+                record.getTitle(),
+                record.getKeyPoints()
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package com.ai.audio.transcriber.dto;
+
+import com.ai.audio.transcriber.model.TranscriptionStage;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.codec.ServerSentEvent;
+
+/**
+ * Payload of one server-sent event on the streaming endpoint. Only the field that matches the
+ * event name is set: {@code stage}, {@code text} (transcript/token), {@code result} or {@code error}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TranscriptionStreamEvent(
+        TranscriptionStage stage,
+        String text,
+        TranscriptionResult result,
+        String error
+) {
+    public static ServerSentEvent<TranscriptionStreamEvent> stage(TranscriptionStage stage) {
+        return event("stage", new TranscriptionStreamEvent(stage, null, null, null));
+    }
+
+    // Full transcript, sent once before the analysis starts streaming (OpenAI path)
+    public static ServerSentEvent<TranscriptionStreamEvent> transcript(String text) {
+        return event("transcript", new TranscriptionStreamEvent(null, text, null, null));
+    }
+
+    public static ServerSentEvent<TranscriptionStreamEvent> token(String text) {
+        return event("token", new TranscriptionStreamEvent(null, text, null, null));
+    }
+
+    public static ServerSentEvent<TranscriptionStreamEvent> result(TranscriptionResult result) {
+        return event("result", new TranscriptionStreamEvent(TranscriptionStage.COMPLETED, null, result, null));
+    }
+
+    public static ServerSentEvent<TranscriptionStreamEvent> error(String error) {
+        return event("error", new TranscriptionStreamEvent(null, null, null, error));
+    }
+
+    private static ServerSentEvent<TranscriptionStreamEvent> event(String name, TranscriptionStreamEvent data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
+}
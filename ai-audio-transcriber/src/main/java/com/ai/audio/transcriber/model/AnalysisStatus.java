@@ -0,0 +1,9 @@
+package com.ai.audio.transcriber.model;
+
+/**
+ * State of the AI analysis of a record. Only the pipelined OpenAI path saves PENDING records;
+ * the analysis is filled in afterwards and the status moves to COMPLETED or FAILED.
+ */
+public enum AnalysisStatus {
+    PENDING, COMPLETED, FAILED
+}
@@ -0,0 +1,35 @@
+package com.ai.audio.transcriber.model;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Principal built from the JWT claims alone (uid, sub, role), so a request is authenticated
+ * without loading the user row. {@link #getName()} is the email, same as the UserDetails username.
+ */
+public record AuthenticatedUser(Long id, String email, Role role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority(role.name()));
+    }
+
+    /**
+     * Detached User carrying only id, email and role. Good enough as the owner of a new
+     * TranscriptionRecord (only the id is written) and for the rate limiter; the password is not set.
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setRole(role);
+        return user;
+    }
+}
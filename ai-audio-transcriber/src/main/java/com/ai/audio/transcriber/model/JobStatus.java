@@ -0,0 +1,5 @@
+package com.ai.audio.transcriber.model;
+
+public enum JobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED
+}
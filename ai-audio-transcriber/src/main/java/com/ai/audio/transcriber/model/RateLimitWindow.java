@@ -0,0 +1,40 @@
+package com.ai.audio.transcriber.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Shared rate limit counter: how many transcriptions a user has reserved in one fixed window.
+ * Only mapped so that ddl-auto creates the table; JdbcRateLimiter reads and writes it with
+ * single-statement atomic SQL.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@IdClass(RateLimitWindow.Key.class)
+@Table(name = "rate_limit_windows")
+public class RateLimitWindow {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Start of the window in epoch millis, a multiple of the window length
+    @Id
+    @Column(name = "window_start")
+    private Long windowStart;
+
+    @Column(name = "used", nullable = false)
+    private int used;
+
+    public record Key(Long userId, Long windowStart) implements Serializable {
+        public Key() {
+            this(null, null);
+        }
+    }
+}
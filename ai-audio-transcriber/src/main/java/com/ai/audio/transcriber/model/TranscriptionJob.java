@@ -0,0 +1,55 @@
+package com.ai.audio.transcriber.model;
+
+import com.ai.audio.transcriber.dto.TranscriptionResult;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * In-memory state of a transcription submitted through the job API.
+ * Fields are written by the worker thread and read by status requests, hence volatile.
+ */
+@Getter
+public class TranscriptionJob {
+
+    private final String id;
+    private final Long userId;
+    private final String originalFileName;
+    private final String model;
+    private final LocalDateTime submittedDate = LocalDateTime.now();
+
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile TranscriptionResult result;
+    private volatile String error;
+    private volatile LocalDateTime finishedDate;
+    private volatile long uploadedBytes;
+    private volatile long totalBytes;
+
+    public TranscriptionJob(String id, Long userId, String originalFileName, String model) {
+        this.id = id;
+        this.userId = userId;
+        this.originalFileName = originalFileName;
+        this.model = model;
+    }
+
+    public void markRunning() {
+        this.status = JobStatus.RUNNING;
+    }
+
+    public void updateUploadProgress(long uploadedBytes, long totalBytes) {
+        this.uploadedBytes = uploadedBytes;
+        this.totalBytes = totalBytes;
+    }
+
+    public void complete(TranscriptionResult result) {
+        this.result = result;
+        this.finishedDate = LocalDateTime.now();
+        this.status = JobStatus.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        this.finishedDate = LocalDateTime.now();
+        this.status = JobStatus.FAILED;
+    }
+}
@@ -6,12 +6,19 @@ import lombok.Setter;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "transcription_records")
+@Table(name = "transcription_records", indexes = {
+        // Lookup key of the deduplication cache
+        @Index(name = "idx_transcription_content_hash_model", columnList = "content_hash, model"),
+        // History listing and the rate limit window, both per user and by date
+        @Index(name = "idx_transcription_user_created", columnList = "user_id, created_date")
+})
 public class TranscriptionRecord {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,13 +30,45 @@ public class TranscriptionRecord {
     private User user;
 
     private String originalFileName;
+
+    // SHA-256 of the uploaded audio and the provider that processed it ("gemini" or "openai")
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "model", length = 20)
+    private String model;
+
+    @Column(name = "created_date")
     private LocalDateTime createdDate = LocalDateTime.now();
 
     @Lob
     @Column(columnDefinition = "LONGTEXT")
     private String fullTranscription;
 
+    // Summary text (Gemini) or the full analysis (OpenAI); never a second copy of the transcript
     @Lob
     @Column(columnDefinition = "LONGTEXT")
     private String aiAnalysis;
+
+    // Set by Gemini's structured output, null on the OpenAI path
+    @Column(name = "title")
+    private String title;
+
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "key_points", columnDefinition = "TEXT")
+    private List<String> keyPoints = new ArrayList<>();
+
+    // Rows written before this column existed read back as null and count as COMPLETED
+    @Enumerated(EnumType.STRING)
+    @Column(name = "analysis_status", length = 20)
+    private AnalysisStatus analysisStatus = AnalysisStatus.COMPLETED;
+
+    public AnalysisStatus getAnalysisStatus() {
+        return analysisStatus != null ? analysisStatus : AnalysisStatus.COMPLETED;
+    }
+
+    // Rows written before the column existed have no key points
+    public List<String> getKeyPoints() {
+        return keyPoints != null ? keyPoints : List.of();
+    }
 }
\ No newline at end of file
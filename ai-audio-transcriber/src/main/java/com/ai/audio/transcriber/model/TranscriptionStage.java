@@ -0,0 +1,9 @@
+package com.ai.audio.transcriber.model;
+
+/**
+ * Pipeline stages reported on the streaming endpoint, in the order they happen.
+ * ANALYZING only occurs on the OpenAI path; Gemini streams its combined output while TRANSCRIBING.
+ */
+public enum TranscriptionStage {
+    RECEIVED, TRANSCRIBING, ANALYZING, SAVING, COMPLETED
+}
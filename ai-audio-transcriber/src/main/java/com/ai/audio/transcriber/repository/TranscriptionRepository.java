@@ -1,31 +1,70 @@
 package com.ai.audio.transcriber.repository;
 
+import com.ai.audio.transcriber.dto.TranscriptionHistoryItem;
+import com.ai.audio.transcriber.model.AnalysisStatus;
 import com.ai.audio.transcriber.model.TranscriptionRecord;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TranscriptionRepository extends JpaRepository<TranscriptionRecord, Long> {
     /**
-     * Finds all transcription records created by a specific user ID.
-     * This is crucial for multi-user security and data separation.
-     * @param userId The ID of the owning user.
-     * @return A list of records belonging to the user.
+     * First page of a user's history, newest first, as lightweight projections.
+     * Served from the (user_id, created_date) index.
      */
-    List<TranscriptionRecord> findByUserIdOrderByCreatedDateDesc(Long userId);
+    @Query("select new com.ai.audio.transcriber.dto.TranscriptionHistoryItem(" +
+            "r.id, r.originalFileName, r.createdDate, substring(r.fullTranscription, 1, 200), substring(r.aiAnalysis, 1, 200), r.analysisStatus) " +
+            "from TranscriptionRecord r where r.user.id = :userId " +
+            "order by r.createdDate desc, r.id desc")
+    List<TranscriptionHistoryItem> findHistory(@Param("userId") Long userId, Limit limit);
 
     /**
-     * Finds all records for a user that were created after a specific time,
-     * allowing us to implement a sliding window log.
-     * We only need the date for the rate limit check.
+     * Next page after the (createdDate, id) of the previous page's last row (keyset pagination),
+     * so deep pages cost the same as the first one instead of an ever larger OFFSET.
      */
-    List<TranscriptionRecord> findByUserIdAndCreatedDateAfter(Long userId, LocalDateTime createdDate);
+    @Query("select new com.ai.audio.transcriber.dto.TranscriptionHistoryItem(" +
+            "r.id, r.originalFileName, r.createdDate, substring(r.fullTranscription, 1, 200), substring(r.aiAnalysis, 1, 200), r.analysisStatus) " +
+            "from TranscriptionRecord r where r.user.id = :userId " +
+            "and (r.createdDate < :createdDate or (r.createdDate = :createdDate and r.id < :id)) " +
+            "order by r.createdDate desc, r.id desc")
+    List<TranscriptionHistoryItem> findHistoryAfter(@Param("userId") Long userId,
+                                                    @Param("createdDate") LocalDateTime createdDate,
+                                                    @Param("id") Long id,
+                                                    Limit limit);
+
+    /**
+     * Creation dates of a user's records after the given time, nothing else.
+     * Used to warm up the in-memory rate limit window after a restart.
+     */
+    @Query("select r.createdDate from TranscriptionRecord r where r.user.id = :userId and r.createdDate > :after")
+    List<LocalDateTime> findCreatedDatesByUserIdAfter(@Param("userId") Long userId, @Param("after") LocalDateTime after);
 
     /**
      * New method to count records for a specific user created after a given date/time.
      * The Spring Data JPA naming convention automatically generates the query.
      */
     long countByUserIdAndCreatedDateAfter(Long userId, LocalDateTime createdDate);
-}
\ No newline at end of file
+
+    /**
+     * Deduplication lookup: the latest result produced by the given provider for identical audio.
+     * Backed by the (content_hash, model) index.
+     */
+    Optional<TranscriptionRecord> findFirstByContentHashAndModelOrderByCreatedDateDesc(String contentHash, String model);
+
+    /**
+     * Stores the result of an asynchronous analysis without loading the record (and its transcript) first.
+     */
+    @Modifying
+    @Transactional
+    @Query("update TranscriptionRecord r set r.aiAnalysis = :analysis, r.analysisStatus = :status where r.id = :id")
+    int updateAnalysis(@Param("id") Long id, @Param("analysis") String analysis, @Param("status") AnalysisStatus status);
+}
@@ -1,9 +1,17 @@
 package com.ai.audio.transcriber.repository;
 
+import com.ai.audio.transcriber.model.Role;
 import com.ai.audio.transcriber.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+
+    // Revocation check for token principals, reads the role column only
+    @Query("select u.role from User u where u.id = :id and u.email = :email")
+    Optional<Role> findRoleByIdAndEmail(@Param("id") Long id, @Param("email") String email);
+}
@@ -0,0 +1,62 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.model.AnalysisStatus;
+import com.ai.audio.transcriber.repository.TranscriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the OpenAI summary of an already saved transcription in the background and writes it
+ * into the record, so the transcript can be returned as soon as Whisper is done.
+ * Goes through the same OpenAI circuit breaker as the request path; while it is open the
+ * analysis is marked FAILED without calling OpenAI.
+ */
+@Service
+public class AsyncAnalysisService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncAnalysisService.class);
+
+    private final TranscriptionAnalysisService analysisService;
+    private final TranscriptionRepository transcriptionRepository;
+    private final TaskExecutor analysisExecutor;
+    private final ProviderCircuitBreaker openAiCircuitBreaker;
+
+    public AsyncAnalysisService(TranscriptionAnalysisService analysisService,
+                                TranscriptionRepository transcriptionRepository,
+                                @Qualifier("analysisExecutor") TaskExecutor analysisExecutor,
+                                @Qualifier("openAiCircuitBreaker") ProviderCircuitBreaker openAiCircuitBreaker) {
+        this.analysisService = analysisService;
+        this.transcriptionRepository = transcriptionRepository;
+        this.analysisExecutor = analysisExecutor;
+        this.openAiCircuitBreaker = openAiCircuitBreaker;
+    }
+
+    public void schedule(Long recordId, String transcriptionText) {
+        try {
+            analysisExecutor.execute(() -> analyze(recordId, transcriptionText));
+        } catch (TaskRejectedException e) {
+            // Queue full: the caller is a request thread, so the summary is not run here.
+            // A FAILED analysis is retried the next time the same audio is uploaded.
+            log.warn("Background analysis of record {} rejected, queue is full", recordId);
+            transcriptionRepository.updateAnalysis(recordId, null, AnalysisStatus.FAILED);
+        }
+    }
+
+    private void analyze(Long recordId, String transcriptionText) {
+        try {
+            String analysis = openAiCircuitBreaker.call(() -> analysisService.summarize(transcriptionText));
+            transcriptionRepository.updateAnalysis(recordId, analysis, AnalysisStatus.COMPLETED);
+        } catch (ProviderBusyException e) {
+            // Open circuit: retried the next time the same audio is uploaded, like any FAILED analysis
+            log.warn("Background analysis of record {} skipped: {}", recordId, e.getReason());
+            transcriptionRepository.updateAnalysis(recordId, null, AnalysisStatus.FAILED);
+        } catch (Exception e) {
+            log.error("Background analysis of record {} failed", recordId, e);
+            transcriptionRepository.updateAnalysis(recordId, null, AnalysisStatus.FAILED);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ai.audio.transcriber.service;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Audio handed to the providers: where the bytes come from plus the metadata the upload needs.
+ */
+public record AudioSource(String fileName, String mimeType, long size, Resource resource) {
+
+    private static final String DEFAULT_MIME_TYPE = "audio/mpeg";
+
+    /**
+     * The received copy of a multipart upload, described with the part's own name and content type.
+     */
+    public static AudioSource of(MultipartFile file, Path copy) throws IOException {
+        String mimeType = file.getContentType();
+        if (mimeType == null || MediaType.APPLICATION_OCTET_STREAM_VALUE.equals(mimeType)) {
+            mimeType = guessMimeType(file.getOriginalFilename());
+        }
+        return new AudioSource(file.getOriginalFilename(), mimeType, Files.size(copy), new FileSystemResource(copy));
+    }
+
+    public static AudioSource of(Path path, String fileName) throws IOException {
+        return new AudioSource(fileName, guessMimeType(fileName), Files.size(path), new FileSystemResource(path));
+    }
+
+    private static String guessMimeType(String fileName) {
+        if (fileName == null) {
+            return DEFAULT_MIME_TYPE;
+        }
+        return MediaTypeFactory.getMediaType(fileName)
+                .map(MediaType::toString)
+                .orElse(DEFAULT_MIME_TYPE);
+    }
+}
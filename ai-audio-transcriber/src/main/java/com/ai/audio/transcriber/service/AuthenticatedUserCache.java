@@ -0,0 +1,67 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.model.AuthenticatedUser;
+import com.ai.audio.transcriber.model.Role;
+import com.ai.audio.transcriber.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation check for stateless principals. A token stays valid until its exp, so without this a
+ * deleted user or a demoted admin would keep their access for up to a day. Instead each user is
+ * re-checked against the database at most once per TTL, which keeps the check off almost every request.
+ */
+@Service
+public class AuthenticatedUserCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxSize;
+
+    private final Map<Long, Check> checks = new ConcurrentHashMap<>();
+
+    private record Check(String email, Role role, boolean active, long checkedAt) {
+    }
+
+    public AuthenticatedUserCache(UserRepository userRepository,
+                                  @Value("${application.security.principal-cache.ttl:30s}") Duration ttl,
+                                  @Value("${application.security.principal-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * True if the user still exists with the email and role the token was issued for.
+     * A role change therefore invalidates old tokens; the user has to log in again.
+     */
+    public boolean isActive(AuthenticatedUser principal) {
+        long now = System.currentTimeMillis();
+        Check check = checks.get(principal.id());
+        if (check == null || now - check.checkedAt() >= ttlMillis
+                || !check.email().equals(principal.email()) || check.role() != principal.role()) {
+            Optional<Role> role = userRepository.findRoleByIdAndEmail(principal.id(), principal.email());
+            check = new Check(principal.email(), principal.role(), role.isPresent() && role.get() == principal.role(), now);
+            if (checks.size() >= maxSize) {
+                evict(now);
+            }
+            checks.put(principal.id(), check);
+        }
+        return check.active();
+    }
+
+    private void evict(long now) {
+        checks.values().removeIf(check -> now - check.checkedAt() >= ttlMillis);
+        Iterator<Long> ids = checks.keySet().iterator();
+        while (checks.size() >= maxSize && ids.hasNext()) {
+            ids.next();
+            ids.remove();
+        }
+    }
+}
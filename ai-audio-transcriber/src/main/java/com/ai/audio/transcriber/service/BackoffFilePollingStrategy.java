@@ -0,0 +1,80 @@
+package com.ai.audio.transcriber.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Fast first probe, then exponential backoff with jitter, bounded by a deadline that grows with
+ * the file size. Short clips are usually ACTIVE within a few hundred milliseconds, while long
+ * recordings can take minutes, so neither a fixed interval nor a fixed retry count fits both.
+ */
+public class BackoffFilePollingStrategy implements FilePollingStrategy {
+
+    private static final double BYTES_PER_MB = 1024 * 1024;
+
+    private final Clock clock;
+    private final DoubleSupplier random;
+    private final Duration firstProbeDelay;
+    private final Duration initialInterval;
+    private final double multiplier;
+    private final Duration maxInterval;
+    private final double jitter;
+    private final Duration baseDeadline;
+    private final Duration deadlinePerMb;
+
+    public BackoffFilePollingStrategy(Clock clock, DoubleSupplier random,
+                                      Duration firstProbeDelay, Duration initialInterval, double multiplier,
+                                      Duration maxInterval, double jitter,
+                                      Duration baseDeadline, Duration deadlinePerMb) {
+        this.clock = clock;
+        this.random = random;
+        this.firstProbeDelay = firstProbeDelay;
+        this.initialInterval = initialInterval;
+        this.multiplier = multiplier;
+        this.maxInterval = maxInterval;
+        this.jitter = jitter;
+        this.baseDeadline = baseDeadline;
+        this.deadlinePerMb = deadlinePerMb;
+    }
+
+    @Override
+    public PollSchedule start(long fileSizeBytes) {
+        long extraMillis = (long) (deadlinePerMb.toMillis() * (fileSizeBytes / BYTES_PER_MB));
+        Instant deadline = clock.instant().plus(baseDeadline).plusMillis(extraMillis);
+        return new Schedule(deadline);
+    }
+
+    private class Schedule implements PollSchedule {
+
+        private final Instant deadline;
+        private int probes;
+
+        private Schedule(Instant deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public Optional<Duration> nextDelay() {
+            Duration remaining = Duration.between(clock.instant(), deadline);
+            if (remaining.isNegative() || remaining.isZero()) {
+                return Optional.empty();
+            }
+
+            Duration delay = probes == 0 ? firstProbeDelay : backoff(probes);
+            probes++;
+
+            // Never sleep past the deadline; probe one last time right at it instead
+            return Optional.of(delay.compareTo(remaining) > 0 ? remaining : delay);
+        }
+
+        private Duration backoff(int retry) {
+            double base = Math.min(initialInterval.toMillis() * Math.pow(multiplier, retry - 1), maxInterval.toMillis());
+            // random() in [0, 1) spreads the delay over base * (1 +/- jitter)
+            double jittered = base * (1 + jitter * (2 * random.getAsDouble() - 1));
+            return Duration.ofMillis(Math.max(0, Math.round(jittered)));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.ai.audio.transcriber.service;
+
+/**
+ * Supplier that may throw a checked exception, so blocking provider calls can be wrapped
+ * (bulkheads, circuit breakers, timers) without losing their IOException.
+ */
+@FunctionalInterface
+public interface CheckedSupplier<T, E extends Exception> {
+    T get() throws E;
+}
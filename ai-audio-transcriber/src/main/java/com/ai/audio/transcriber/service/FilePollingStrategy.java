@@ -0,0 +1,24 @@
+package com.ai.audio.transcriber.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Decides when to probe the state of an uploaded file while waiting for it to become ACTIVE.
+ */
+public interface FilePollingStrategy {
+
+    /**
+     * Starts the wait for one file. Larger files may get a longer deadline.
+     */
+    PollSchedule start(long fileSizeBytes);
+
+    interface PollSchedule {
+
+        /**
+         * Delay before the next probe (the first call gives the delay before the first probe),
+         * or empty once the deadline has passed and the wait should time out.
+         */
+        Optional<Duration> nextDelay();
+    }
+}
@@ -0,0 +1,404 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.dto.FileApiResponse;
+import com.ai.audio.transcriber.dto.FileMetadataRequest;
+import com.ai.audio.transcriber.dto.GeminiRequest;
+import com.ai.audio.transcriber.dto.GeminiResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking client for the Gemini Files API and generateContent.
+ * Every step returns a Mono, so a whole transcription can be in flight without holding a thread.
+ */
+@Service
+public class GeminiClient {
+
+    private static final Logger log = LoggerFactory.getLogger(GeminiClient.class);
+
+    private static final String UPLOAD_URL = "https://generativelanguage.googleapis.com/upload/v1beta/files";
+    private static final String GENERATE_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent?key=";
+    private static final String STREAM_GENERATE_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:streamGenerateContent?alt=sse&key=";
+    private static final String PROMPT = "Transcribe this audio clip word for word into transcript. "
+            + "Then give the recording a short title, a brief summary of the content and its key points.";
+
+    // One call returns transcript and analysis as separate fields; transcript first so it can be streamed
+    private static final GeminiRequest.GenerationConfig TRANSCRIPTION_OUTPUT = new GeminiRequest.GenerationConfig(
+            MediaType.APPLICATION_JSON_VALUE,
+            new GeminiRequest.Schema("OBJECT",
+                    Map.of("transcript", GeminiRequest.Schema.string(),
+                            "title", GeminiRequest.Schema.string(),
+                            "summary", GeminiRequest.Schema.string(),
+                            "keyPoints", GeminiRequest.Schema.array(GeminiRequest.Schema.string())),
+                    null,
+                    List.of("transcript", "title", "summary", "keyPoints"),
+                    List.of("transcript", "title", "summary", "keyPoints")));
+
+    private static final String STATE_UNKNOWN = "UNKNOWN";
+    // How a 403 on generateContent says the referenced file is missing or not ours
+    private static final List<String> FILE_GONE_HINTS = List.of("may not exist", "does not exist", "not found");
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+
+    private final WebClient webClient;
+    private final GeminiFileCache fileCache;
+    private final FilePollingStrategy pollingStrategy;
+    private final GeminiResumableUploader resumableUploader;
+    private final long chunkedUploadThreshold;
+    private final Duration uploadTimeout;
+    private final TranscriptionMetrics metrics;
+
+    @Value("${gemini.api.key}")
+    private String apiKey;
+
+    // Response timeouts per call type, the time Google may take to answer once the request is sent
+    @Value("${gemini.http.timeout.control:30s}")
+    private Duration controlTimeout;
+
+    @Value("${gemini.http.timeout.generate:5m}")
+    private Duration generateTimeout;
+
+    @Value("${gemini.http.timeout.poll:15s}")
+    private Duration pollTimeout;
+
+    public GeminiClient(@Qualifier("geminiWebClient") WebClient webClient,
+                        GeminiFileCache fileCache,
+                        FilePollingStrategy pollingStrategy,
+                        TranscriptionMetrics metrics,
+                        @Value("${gemini.upload.chunked-threshold:20MB}") DataSize chunkedUploadThreshold,
+                        @Value("${gemini.upload.chunk-size:8MB}") DataSize chunkSize,
+                        @Value("${gemini.upload.max-retries:5}") int maxRetries,
+                        @Value("${gemini.upload.retry-delay:1s}") Duration retryDelay,
+                        @Value("${gemini.http.timeout.upload:5m}") Duration uploadTimeout) {
+        this.webClient = webClient;
+        this.fileCache = fileCache;
+        this.pollingStrategy = pollingStrategy;
+        this.metrics = metrics;
+        this.uploadTimeout = uploadTimeout;
+        this.resumableUploader = new GeminiResumableUploader(webClient, chunkSize.toBytes(), maxRetries, retryDelay, uploadTimeout);
+        this.chunkedUploadThreshold = chunkedUploadThreshold.toBytes();
+    }
+
+    public Mono<GeminiResponse> transcribe(AudioSource audio) {
+        return transcribe(audio, null, UploadProgressListener.NONE);
+    }
+
+    /**
+     * Full Gemini pipeline: init, upload, wait for ACTIVE, generate.
+     * Emits the decoded generateContent response.
+     * When the content hash is known and the same bytes were uploaded recently, the upload steps
+     * are skipped and the cached file URI goes straight to generateContent.
+     */
+    public Mono<GeminiResponse> transcribe(AudioSource audio, String contentHash, UploadProgressListener progressListener) {
+        GeminiFileCache.CachedFile cachedFile = contentHash != null ? fileCache.get(contentHash) : null;
+        if (cachedFile != null) {
+            log.debug("Reusing uploaded Gemini file uri={}", cachedFile.fileUri());
+            return generateContent(cachedFile.fileUri(), cachedFile.mimeType())
+                    .onErrorResume(this::isFileGone, e -> {
+                        // Deleted or expired on Google's side earlier than we expected
+                        fileCache.evict(contentHash);
+                        return uploadAndGenerate(audio, contentHash, progressListener);
+                    })
+                    .doOnNext(this::logResponse);
+        }
+        return uploadAndGenerate(audio, contentHash, progressListener);
+    }
+
+    /**
+     * Streaming variant of {@link #transcribe(AudioSource, String, UploadProgressListener)}: upload and
+     * state polling are the same, then streamGenerateContent emits the text as Gemini writes it.
+     */
+    public Flux<String> transcribeStream(AudioSource audio, String contentHash, UploadProgressListener progressListener) {
+        GeminiFileCache.CachedFile cachedFile = contentHash != null ? fileCache.get(contentHash) : null;
+        if (cachedFile != null) {
+            log.debug("Reusing uploaded Gemini file uri={}", cachedFile.fileUri());
+            // A gone file is reported before the first chunk, so nothing has been emitted yet on fallback
+            return streamGenerateContent(cachedFile.fileUri(), cachedFile.mimeType())
+                    .onErrorResume(this::isFileGone, e -> {
+                        fileCache.evict(contentHash);
+                        return uploadAndWait(audio, contentHash, progressListener)
+                                .flatMapMany(fileUri -> streamGenerateContent(fileUri, audio.mimeType()));
+                    });
+        }
+        return uploadAndWait(audio, contentHash, progressListener)
+                .flatMapMany(fileUri -> streamGenerateContent(fileUri, audio.mimeType()));
+    }
+
+    private Mono<GeminiResponse> uploadAndGenerate(AudioSource audio, String contentHash, UploadProgressListener progressListener) {
+        return uploadAndWait(audio, contentHash, progressListener)
+                .flatMap(fileUri -> generateContent(fileUri, audio.mimeType()))
+                .doOnNext(this::logResponse);
+    }
+
+    private void logResponse(GeminiResponse response) {
+        if (log.isDebugEnabled()) {
+            String text = response.text();
+            log.debug("Gemini response chars={} preview={}", text.length(), LogPreview.of(text));
+        }
+    }
+
+    // Emits the file URI once the upload is ACTIVE and usable for generation
+    private Mono<String> uploadAndWait(AudioSource audio, String contentHash, UploadProgressListener progressListener) {
+        log.atInfo().setMessage("Gemini upload")
+                .addKeyValue("file", audio.fileName())
+                .addKeyValue("mimeType", audio.mimeType())
+                .addKeyValue("bytes", audio.size())
+                .log();
+
+        return initiatedUpload(audio.mimeType(), audio.size(), "MyAudioFile")
+                .doOnNext(uploadUrl -> log.debug("Gemini upload session obtained"))
+                .flatMap(uploadUrl -> upload(uploadUrl, audio, progressListener))
+                .doOnNext(fileUri -> log.atInfo().setMessage("Gemini file uploaded").addKeyValue("uri", fileUri).log())
+                .flatMap(fileUri -> waitForFileActive(fileUri, audio.size())
+                        .then(Mono.fromRunnable(() -> {
+                            if (contentHash != null) {
+                                fileCache.put(contentHash, fileUri, audio.mimeType());
+                            }
+                        }))
+                        .thenReturn(fileUri));
+    }
+
+    /**
+     * Gemini answers 403 rather than 404 for a file that was deleted or belongs to another project,
+     * with "…permission to access the File … or it may not exist" in the message. Any other 403
+     * (suspended key, API not enabled) is a real error and must not turn into a fresh upload.
+     */
+    private boolean isFileGone(Throwable e) {
+        if (!(e instanceof ResponseStatusException statusException)) {
+            return false;
+        }
+        int status = statusException.getStatusCode().value();
+        if (status == HttpStatus.NOT_FOUND.value()) {
+            return true;
+        }
+        if (status != HttpStatus.FORBIDDEN.value() || statusException.getReason() == null) {
+            return false;
+        }
+        String reason = statusException.getReason().toLowerCase(Locale.ROOT);
+        return reason.contains("file") && FILE_GONE_HINTS.stream().anyMatch(reason::contains);
+    }
+
+    public Mono<String> initiatedUpload(String mimeType, long numBytes, String displayName) {
+        return metrics.timeMono("initiate_upload", TranscriptionMetrics.PROVIDER_GEMINI, () -> webClient.post()
+                .uri(UPLOAD_URL)
+                .header("x-goog-api-key", apiKey)
+                .header("X-Goog-Upload-Protocol", "resumable")
+                .header("X-Goog-Upload-Command", "start")
+                // FIXED: Changed Content_Length to Content-Length
+                .header("X-Goog-Upload-Header-Content-Length", String.valueOf(numBytes))
+                .header("X-Goog-Upload-Header-Content-Type", mimeType)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new FileMetadataRequest(new FileMetadataRequest.FileWrapper(displayName)))
+                .httpRequest(responseTimeout(controlTimeout))
+                .retrieve()
+                .toBodilessEntity()
+                .map(responseEntity -> responseEntity.getHeaders().getFirst("x-goog-upload-url")));
+    }
+
+    /**
+     * Large recordings go up in resumable chunks so a network blip only costs the current chunk;
+     * small ones are sent in a single request.
+     */
+    private Mono<String> upload(String uploadUrl, AudioSource audio, UploadProgressListener progressListener) {
+        return metrics.timeMono("upload", TranscriptionMetrics.PROVIDER_GEMINI, () -> {
+                    if (audio.size() > chunkedUploadThreshold) {
+                        return resumableUploader.upload(uploadUrl, audio, progressListener);
+                    }
+                    return uploadBytes(uploadUrl, audio)
+                            .doOnNext(fileUri -> progressListener.onProgress(audio.size(), audio.size()));
+                })
+                .doOnNext(fileUri -> metrics.uploadedBytes(TranscriptionMetrics.PROVIDER_GEMINI, audio.size()));
+    }
+
+    public Mono<String> uploadBytes(String uploadUrl, AudioSource audio) {
+        return webClient.post()
+                .uri(uploadUrl)
+                .header("Content-Length", String.valueOf(audio.size()))
+                .header("X-Goog-Upload-Offset", "0")
+                // CRITICAL FIX: Changed from "finalize" to "upload, finalize"
+                .header("X-Goog-Upload-Command", "upload, finalize")
+                .body(uploadBody(audio.resource()))
+                .httpRequest(responseTimeout(uploadTimeout))
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError(), response -> {
+                    // This helper will print the actual error body from Google if it fails again
+                    return response.bodyToMono(String.class)
+                            .flatMap(body -> {
+                                logProviderError("Gemini upload failed", response.statusCode().value(), body);
+                                return Mono.error(new ResponseStatusException(response.statusCode(), "Upload failed: " + body));
+                            });
+                })
+                .bodyToMono(FileApiResponse.class)
+                .map(response -> response.file().uri());
+    }
+
+    /**
+     * Polls the Google Files API until the file state is ACTIVE, on the schedule of the configured
+     * polling strategy. FAILED ends the wait at once; only transient errors (I/O, 5xx, 429) are
+     * retried. Errors with 504 once the strategy's deadline has passed.
+     */
+    public Mono<Void> waitForFileActive(String fileUri, long fileSizeBytes) {
+        // The fileUri is like https://.../files/abc12345
+        // We can GET that URI directly with the API Key to check status
+        String checkUrl = fileUri + "?key=" + apiKey;
+
+        return metrics.timeMono("wait_active", TranscriptionMetrics.PROVIDER_GEMINI,
+                () -> pollFileState(checkUrl, pollingStrategy.start(fileSizeBytes)));
+    }
+
+    private Mono<Void> pollFileState(String checkUrl, FilePollingStrategy.PollSchedule schedule) {
+        Optional<Duration> delay = schedule.nextDelay();
+        if (delay.isEmpty()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "File processing timed out."));
+        }
+
+        return Mono.delay(delay.get())
+                // Each probe is timed on its own, the backoff delay is not part of it
+                .then(metrics.timeMono("poll", TranscriptionMetrics.PROVIDER_GEMINI, () -> webClient.get()
+                        .uri(checkUrl)
+                        .httpRequest(responseTimeout(pollTimeout))
+                        .retrieve()
+                        .bodyToMono(JsonNode.class)
+                        .map(json -> json.path("state").asText())))
+                .doOnNext(state -> log.debug("Gemini file state={}", state))
+                .onErrorResume(this::isTransientError, e -> {
+                    log.warn("Gemini file state check failed, retrying: {}", e.getMessage());
+                    return Mono.just(STATE_UNKNOWN);
+                })
+                .flatMap(state -> switch (state) {
+                    case "ACTIVE" -> Mono.<Void>empty(); // Ready to go!
+                    case "FAILED" -> Mono.<Void>error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Google failed to process the audio file."));
+                    default -> pollFileState(checkUrl, schedule);
+                });
+    }
+
+    private boolean isTransientError(Throwable e) {
+        if (e instanceof WebClientRequestException) {
+            return true;
+        }
+        return e instanceof WebClientResponseException responseException
+                && (responseException.getStatusCode().is5xxServerError()
+                || responseException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    /**
+     * The response is decoded into {@link GeminiResponse} by the Jackson decoder, straight from the
+     * received buffers: no String copy of the body and no JsonNode tree, unknown fields are skipped.
+     */
+    public Mono<GeminiResponse> generateContent(String fileUri, String mimeType) {
+        String url = GENERATE_URL + apiKey;
+
+        return metrics.timeMono("generate", TranscriptionMetrics.PROVIDER_GEMINI, () -> webClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(generateRequest(fileUri, mimeType))
+                .httpRequest(responseTimeout(generateTimeout))
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError(), response -> {
+                    return response.bodyToMono(String.class)
+                            .flatMap(body -> {
+                                logProviderError("Gemini generate failed", response.statusCode().value(), body);
+                                return Mono.error(new ResponseStatusException(response.statusCode(), body));
+                            });
+                })
+                .bodyToMono(GeminiResponse.class));
+    }
+
+    /**
+     * streamGenerateContent with alt=sse: every event carries a partial GenerateContentResponse.
+     * Emits the text of each chunk as soon as it arrives; joined, the chunks are the JSON object of
+     * the response schema.
+     */
+    public Flux<String> streamGenerateContent(String fileUri, String mimeType) {
+        String url = STREAM_GENERATE_URL + apiKey;
+
+        return metrics.timeFlux("generate_stream", TranscriptionMetrics.PROVIDER_GEMINI, () -> webClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(generateRequest(fileUri, mimeType))
+                .httpRequest(responseTimeout(generateTimeout))
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError(), response -> {
+                    return response.bodyToMono(String.class)
+                            .flatMap(body -> {
+                                logProviderError("Gemini stream failed", response.statusCode().value(), body);
+                                return Mono.error(new ResponseStatusException(response.statusCode(), body));
+                            });
+                })
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<GeminiResponse>>() {})
+                .mapNotNull(ServerSentEvent::data)
+                .map(GeminiResponse::text)
+                .filter(text -> !text.isEmpty()));
+    }
+
+    /**
+     * Reactor Netty response timeout for a single exchange: how long the server may stay silent
+     * after the request was sent (between chunks, for streamed responses).
+     */
+    static Consumer<ClientHttpRequest> responseTimeout(Duration timeout) {
+        return request -> {
+            if (request.getNativeRequest() instanceof HttpClientRequest reactorRequest) {
+                reactorRequest.responseTimeout(timeout);
+            }
+        };
+    }
+
+    // status and body become fields of the JSON log event, the plain dev pattern prints them after the message
+    private static void logProviderError(String message, int status, String body) {
+        log.atWarn().setMessage(message)
+                .addKeyValue("status", status)
+                .addKeyValue("body", () -> LogPreview.of(body).toString())
+                .log();
+    }
+
+    private static GeminiRequest generateRequest(String fileUri, String mimeType) {
+        var textPart = new GeminiRequest.TextPart(PROMPT);
+        var filePart = new GeminiRequest.FileDataPart(new GeminiRequest.FileData(mimeType, fileUri));
+        var content = new GeminiRequest.Content(List.of(textPart, filePart));
+        return new GeminiRequest(List.of(content), TRANSCRIPTION_OUTPUT);
+    }
+
+    /**
+     * Files on disk go through the resource writer, which Reactor Netty sends with zero-copy
+     * (FileChannel.transferTo). Anything else, e.g. a trimmed WAV slice, is piped as a DataBuffer
+     * stream so the body is never materialised in memory or copied to another file.
+     */
+    private BodyInserter<?, ? super ClientHttpRequest> uploadBody(Resource resource) {
+        if (resource.isFile()) {
+            return BodyInserters.fromResource(resource);
+        }
+        Flux<DataBuffer> content = DataBufferUtils.readInputStream(
+                resource::getInputStream, DefaultDataBufferFactory.sharedInstance, UPLOAD_BUFFER_SIZE);
+        return BodyInserters.fromDataBuffers(content);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ai.audio.transcriber.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which audio (by content hash) is already uploaded to the Gemini Files API.
+ * Uploaded files are kept by Google for 48 hours, so entries expire slightly earlier than that
+ * and a cached URI can go straight to generateContent without another upload and state poll.
+ */
+@Component
+public class GeminiFileCache {
+
+    private final Map<String, CachedFile> files = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final Duration ttl;
+    private final int maxEntries;
+
+    @Autowired
+    public GeminiFileCache(@Value("${gemini.files.cache-ttl:47h}") Duration ttl,
+                           @Value("${gemini.files.cache-max-entries:10000}") int maxEntries) {
+        this(Clock.systemUTC(), ttl, maxEntries);
+    }
+
+    GeminiFileCache(Clock clock, Duration ttl, int maxEntries) {
+        this.clock = clock;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    public CachedFile get(String contentHash) {
+        CachedFile cachedFile = files.get(contentHash);
+        if (cachedFile == null) {
+            return null;
+        }
+        if (cachedFile.expiresAt().isBefore(clock.instant())) {
+            files.remove(contentHash, cachedFile);
+            return null;
+        }
+        return cachedFile;
+    }
+
+    public void put(String contentHash, String fileUri, String mimeType) {
+        if (files.size() >= maxEntries) {
+            evictExpired();
+        }
+        if (files.size() >= maxEntries) {
+            // Still full: drop whatever is closest to expiring anyway
+            files.entrySet().stream()
+                    .min(Comparator.comparing(entry -> entry.getValue().expiresAt()))
+                    .ifPresent(entry -> files.remove(entry.getKey(), entry.getValue()));
+        }
+        files.put(contentHash, new CachedFile(fileUri, mimeType, clock.instant().plus(ttl)));
+    }
+
+    public void evict(String contentHash) {
+        files.remove(contentHash);
+    }
+
+    private void evictExpired() {
+        Instant now = clock.instant();
+        files.values().removeIf(cachedFile -> cachedFile.expiresAt().isBefore(now));
+    }
+
+    public record CachedFile(String fileUri, String mimeType, Instant expiresAt) {}
+}
@@ -0,0 +1,188 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.dto.FileApiResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chunked upload over the resumable protocol that {@code initiatedUpload} starts.
+ * The session is fed fixed-size chunks; when one fails the server is asked how many bytes it
+ * has committed and the upload carries on from that offset instead of restarting from byte zero.
+ */
+public class GeminiResumableUploader {
+
+    private static final Logger log = LoggerFactory.getLogger(GeminiResumableUploader.class);
+
+    // Google requires every chunk except the last one to be a multiple of 256 KiB
+    static final int CHUNK_GRANULARITY = 256 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final WebClient webClient;
+    private final long chunkSize;
+    private final int maxRetries;
+    private final Duration retryDelay;
+    private final Duration responseTimeout;
+
+    public GeminiResumableUploader(WebClient webClient, long chunkSize, int maxRetries, Duration retryDelay, Duration responseTimeout) {
+        if (chunkSize < CHUNK_GRANULARITY) {
+            throw new IllegalArgumentException("Chunk size must be at least " + CHUNK_GRANULARITY + " bytes");
+        }
+        this.webClient = webClient;
+        this.chunkSize = chunkSize - (chunkSize % CHUNK_GRANULARITY);
+        this.maxRetries = maxRetries;
+        this.retryDelay = retryDelay;
+        this.responseTimeout = responseTimeout;
+    }
+
+    /**
+     * Uploads the audio into an already started session and emits the resulting file URI.
+     * Up to {@code maxRetries} consecutive failures are tolerated; a committed chunk resets the count.
+     */
+    public Mono<String> upload(String uploadUrl, AudioSource audio, UploadProgressListener listener) {
+        if (audio.resource().isFile()) {
+            return uploadFrom(uploadUrl, audio, 0, new AtomicInteger(), listener);
+        }
+        // A stream resource (a trimmed WAV slice, say) can only be read from its start, so every chunk
+        // would re-read and discard all bytes before its offset. Copy it to a temp file once and seek in that.
+        return Mono.usingWhen(
+                Mono.fromCallable(() -> spool(audio)).subscribeOn(Schedulers.boundedElastic()),
+                spooled -> uploadFrom(uploadUrl, spooled, 0, new AtomicInteger(), listener),
+                spooled -> Mono.fromRunnable(() -> delete(spooled)).subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    private static AudioSource spool(AudioSource audio) throws IOException {
+        Path tempFile = Files.createTempFile("gemini-upload-", ".part");
+        try (InputStream in = audio.resource().getInputStream()) {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new AudioSource(audio.fileName(), audio.mimeType(), audio.size(), new FileSystemResource(tempFile));
+    }
+
+    private static void delete(AudioSource spooled) {
+        try {
+            Files.deleteIfExists(spooled.resource().getFile().toPath());
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}", spooled.resource().getDescription(), e);
+        }
+    }
+
+    private Mono<String> uploadFrom(String uploadUrl, AudioSource audio, long offset, AtomicInteger failures, UploadProgressListener listener) {
+        return sendChunk(uploadUrl, audio, offset)
+                .doOnNext(outcome -> failures.set(0))
+                .onErrorResume(this::isRetryable, e -> recover(uploadUrl, e, failures))
+                .flatMap(outcome -> {
+                    listener.onProgress(outcome.committedBytes(), audio.size());
+                    if (outcome.fileUri() != null) {
+                        return Mono.just(outcome.fileUri());
+                    }
+                    return uploadFrom(uploadUrl, audio, outcome.committedBytes(), failures, listener);
+                });
+    }
+
+    private Mono<ChunkOutcome> sendChunk(String uploadUrl, AudioSource audio, long offset) {
+        long length = Math.min(chunkSize, audio.size() - offset);
+        boolean last = offset + length >= audio.size();
+
+        // The source is a file here (see upload), so reading at an offset seeks instead of skipping:
+        // only the requested byte range is read and a resumed upload never re-reads the committed part
+        Flux<DataBuffer> chunk = DataBufferUtils.takeUntilByteCount(
+                DataBufferUtils.read(audio.resource(), offset, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE),
+                length);
+
+        return webClient.post()
+                .uri(uploadUrl)
+                .header("Content-Length", String.valueOf(length))
+                .header("X-Goog-Upload-Offset", String.valueOf(offset))
+                .header("X-Goog-Upload-Command", last ? "upload, finalize" : "upload")
+                .body(BodyInserters.fromDataBuffers(chunk))
+                .httpRequest(GeminiClient.responseTimeout(responseTimeout))
+                .retrieve()
+                .toEntity(FileApiResponse.class)
+                .map(entity -> new ChunkOutcome(offset + length, last ? fileUri(entity.getBody()) : null));
+    }
+
+    /**
+     * Waits a little, then asks the session how far it got. Failed status queries count
+     * against the same retry budget as failed chunks.
+     */
+    private Mono<ChunkOutcome> recover(String uploadUrl, Throwable error, AtomicInteger failures) {
+        int attempt = failures.incrementAndGet();
+        if (attempt > maxRetries) {
+            return Mono.error(error);
+        }
+        log.atWarn().setMessage("Gemini upload chunk failed, querying session")
+                .addKeyValue("attempt", attempt)
+                .addKeyValue("error", error.getMessage())
+                .log();
+
+        return Mono.delay(retryDelay.multipliedBy(attempt))
+                .then(queryStatus(uploadUrl))
+                .onErrorResume(this::isRetryable, e -> recover(uploadUrl, e, failures));
+    }
+
+    private Mono<ChunkOutcome> queryStatus(String uploadUrl) {
+        return webClient.post()
+                .uri(uploadUrl)
+                .header("Content-Length", "0")
+                .header("X-Goog-Upload-Command", "query")
+                .httpRequest(GeminiClient.responseTimeout(responseTimeout))
+                .retrieve()
+                .toEntity(FileApiResponse.class)
+                .map(entity -> {
+                    HttpHeaders headers = entity.getHeaders();
+                    String received = headers.getFirst("X-Goog-Upload-Size-Received");
+                    if (received == null) {
+                        throw new IllegalStateException("Upload status query returned no X-Goog-Upload-Size-Received header");
+                    }
+                    // The finalize request may have reached Google even though we never saw its response
+                    boolean finalized = "final".equalsIgnoreCase(headers.getFirst("X-Goog-Upload-Status"));
+                    return new ChunkOutcome(Long.parseLong(received), finalized ? fileUri(entity.getBody()) : null);
+                });
+    }
+
+    private boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientRequestException) {
+            return true; // connection reset, timeout, ...
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError()
+                    || responseException.getStatusCode().isSameCodeAs(HttpStatus.REQUEST_TIMEOUT)
+                    || responseException.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return false;
+    }
+
+    private static String fileUri(FileApiResponse response) {
+        if (response == null || response.file() == null) {
+            throw new IllegalStateException("Upload was finalized but no file resource was returned");
+        }
+        return response.file().uri();
+    }
+
+    private record ChunkOutcome(long committedBytes, String fileUri) {}
+}
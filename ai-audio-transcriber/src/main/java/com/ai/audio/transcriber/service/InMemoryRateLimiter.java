@@ -0,0 +1,207 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.model.Role;
+import com.ai.audio.transcriber.repository.TranscriptionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single-instance {@link RateLimiter}: a per-user sliding window kept in memory. Each user has a small sorted array of admission
+ * times behind an AtomicReference, updated with compare-and-set, so an admission check is a few
+ * array reads and no lock or query. The database is only read the first time a user is seen
+ * (after a restart or eviction), to warm the window up from the dates of their recent records.
+ */
+@Component
+@ConditionalOnProperty(name = "transcription.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private static final long[] EMPTY = new long[0];
+
+    // Set by evict() on windows it dropped; whoever still holds one looks the user up again
+    private static final UserWindow EVICTED = new UserWindow(EMPTY, 0);
+
+    private final TranscriptionRepository transcriptionRepository;
+    private final Clock clock;
+    private final Map<Role, Integer> limits;
+    private final long windowMillis;
+    private final int maxUsers;
+    private final Map<Long, AtomicReference<UserWindow>> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InMemoryRateLimiter(TranscriptionRepository transcriptionRepository,
+                               @Value("${transcription.rate-limit.user-limit:4}") int userLimit,
+                               @Value("${transcription.rate-limit.admin-limit:100}") int adminLimit,
+                               @Value("${transcription.rate-limit.window:24h}") Duration window,
+                               @Value("${transcription.rate-limit.max-users:100000}") int maxUsers) {
+        this(transcriptionRepository, Clock.systemDefaultZone(), limits(userLimit, adminLimit), window, maxUsers);
+    }
+
+    InMemoryRateLimiter(TranscriptionRepository transcriptionRepository, Clock clock,
+                        Map<Role, Integer> limits, Duration window, int maxUsers) {
+        this.transcriptionRepository = transcriptionRepository;
+        this.clock = clock;
+        this.limits = limits;
+        this.windowMillis = window.toMillis();
+        this.maxUsers = maxUsers;
+    }
+
+    @Override
+    public Optional<Reservation> reserve(Long userId, Role role) {
+        int limit = limits.getOrDefault(role != null ? role : Role.USER, limits.get(Role.USER));
+        AtomicReference<UserWindow> window = window(userId);
+        while (true) {
+            long now = clock.millis();
+            UserWindow current = window.get();
+            if (current == EVICTED) {
+                window = window(userId);
+                continue;
+            }
+            long[] live = withoutExpired(current.times(), now - windowMillis);
+            if (live.length >= limit) {
+                // Store the pruned array anyway so the next check has less to look at
+                window.compareAndSet(current, new UserWindow(live, current.pending()));
+                return Optional.empty();
+            }
+            long[] next = Arrays.copyOf(live, live.length + 1);
+            next[live.length] = now;
+            if (window.compareAndSet(current, new UserWindow(next, current.pending() + 1))) {
+                return Optional.of(new Reservation(userId, now));
+            }
+        }
+    }
+
+    @Override
+    public void commit(Reservation reservation) {
+        settle(reservation, false);
+    }
+
+    @Override
+    public void release(Reservation reservation) {
+        settle(reservation, true);
+    }
+
+    // A window with a pending reservation is never evicted, so it is still the one in the map here
+    private void settle(Reservation reservation, boolean giveBack) {
+        AtomicReference<UserWindow> window = windows.get(reservation.userId());
+        if (window == null) {
+            return;
+        }
+        window.updateAndGet(current -> current == EVICTED ? current : new UserWindow(
+                giveBack ? without(current.times(), reservation.slot()) : current.times(),
+                Math.max(0, current.pending() - 1)));
+    }
+
+    private AtomicReference<UserWindow> window(Long userId) {
+        AtomicReference<UserWindow> window = windows.get(userId);
+        if (window != null && window.get() != EVICTED) {
+            return window;
+        }
+        if (windows.size() >= maxUsers) {
+            evict();
+        }
+        // Loaded outside the map so the query does not run while holding a bin lock
+        AtomicReference<UserWindow> warmed = new AtomicReference<>(new UserWindow(loadWindow(userId), 0));
+        return windows.compute(userId, (id, existing) -> existing != null && existing.get() != EVICTED ? existing : warmed);
+    }
+
+    private long[] loadWindow(Long userId) {
+        ZoneId zone = clock.getZone();
+        LocalDateTime windowStart = LocalDateTime.now(clock).minus(Duration.ofMillis(windowMillis));
+        List<LocalDateTime> recent = transcriptionRepository.findCreatedDatesByUserIdAfter(userId, windowStart);
+        return recent.stream()
+                .mapToLong(date -> date.atZone(zone).toInstant().toEpochMilli())
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Drops users with nothing left in their window; if that is not enough, drops the least recently
+     * admitted users until a tenth of the capacity is free, so a full map is not scanned on every new user.
+     * Users with a reservation still pending are kept: their slot is not in the database yet, so a
+     * warm-up after dropping them would hand it out again. A dropped user is warmed up on their next request.
+     */
+    private synchronized void evict() {
+        long cutoff = clock.millis() - windowMillis;
+        int target = maxUsers - Math.max(1, maxUsers / 10);
+        List<IdleUser> idle = new ArrayList<>();
+        for (Map.Entry<Long, AtomicReference<UserWindow>> entry : windows.entrySet()) {
+            UserWindow current = entry.getValue().get();
+            if (current.pending() > 0) {
+                continue;
+            }
+            long[] live = withoutExpired(current.times(), cutoff);
+            IdleUser user = new IdleUser(entry.getKey(), entry.getValue(), live.length == 0 ? Long.MIN_VALUE : live[live.length - 1]);
+            if (live.length == 0) {
+                drop(user);
+            } else {
+                idle.add(user);
+            }
+        }
+        // Sorted on a snapshot of the last admission, windows keep changing meanwhile
+        idle.sort(Comparator.comparingLong(IdleUser::lastAdmission));
+        for (int i = 0; i < idle.size() && windows.size() > target; i++) {
+            drop(idle.get(i));
+        }
+    }
+
+    // Only an unchanged window without pending reservations is dropped; a concurrent reserve wins
+    private void drop(IdleUser user) {
+        UserWindow current = user.window().get();
+        if (current.pending() == 0 && current != EVICTED && user.window().compareAndSet(current, EVICTED)) {
+            windows.remove(user.userId(), user.window());
+        }
+    }
+
+    // Admission times are appended in order, so the expired ones are a prefix
+    private static long[] withoutExpired(long[] times, long cutoff) {
+        int firstLive = 0;
+        while (firstLive < times.length && times[firstLive] <= cutoff) {
+            firstLive++;
+        }
+        if (firstLive == 0) {
+            return times;
+        }
+        return firstLive == times.length ? EMPTY : Arrays.copyOfRange(times, firstLive, times.length);
+    }
+
+    // Removes one occurrence of the admission time; the array stays sorted
+    private static long[] without(long[] times, long time) {
+        for (int i = 0; i < times.length; i++) {
+            if (times[i] == time) {
+                long[] next = new long[times.length - 1];
+                System.arraycopy(times, 0, next, 0, i);
+                System.arraycopy(times, i + 1, next, i, times.length - i - 1);
+                return next;
+            }
+        }
+        return times;
+    }
+
+    // Admission times in order, and how many of them are reservations not yet committed or released
+    private record UserWindow(long[] times, int pending) {}
+
+    private record IdleUser(Long userId, AtomicReference<UserWindow> window, long lastAdmission) {}
+
+    static Map<Role, Integer> limits(int userLimit, int adminLimit) {
+        Map<Role, Integer> limits = new EnumMap<>(Role.class);
+        limits.put(Role.USER, userLimit);
+        limits.put(Role.ADMIN, adminLimit);
+        return limits;
+    }
+}
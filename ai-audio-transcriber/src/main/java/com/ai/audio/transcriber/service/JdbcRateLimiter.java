@@ -0,0 +1,133 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.model.Role;
+import com.ai.audio.transcriber.repository.TranscriptionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cluster-wide {@link RateLimiter} backed by one row per user and fixed window in
+ * rate_limit_windows. Reserving is a single upsert whose update is a conditional increment
+ * ({@code used < limit}) that MySQL applies under the row lock, so the limit holds exactly no
+ * matter how many instances race.
+ * <p>
+ * The outcome is read from the affected-rows count of the upsert: 1 inserted, 2 incremented,
+ * 0 left unchanged (window full). That needs {@code useAffectedRows=true} on the JDBC URL;
+ * with Connector/J's default found-rows count a full window would also report 1.
+ * <p>
+ * Windows are fixed (aligned to multiples of the window length) rather than sliding, which is
+ * what makes a single counter row per user enough.
+ */
+@Component
+@ConditionalOnProperty(name = "transcription.rate-limit.store", havingValue = "jdbc")
+public class JdbcRateLimiter implements RateLimiter {
+
+    private static final int INSERTED = 1;
+    private static final int INCREMENTED = 2;
+
+    private static final String RESERVE_SQL =
+            "INSERT INTO rate_limit_windows (user_id, window_start, used) VALUES (?, ?, 1) " +
+            "ON DUPLICATE KEY UPDATE used = CASE WHEN used < ? THEN used + 1 ELSE used END";
+    private static final String LOCK_WINDOW_SQL =
+            "SELECT used FROM rate_limit_windows WHERE user_id = ? AND window_start = ? FOR UPDATE";
+    private static final String SEED_WINDOW_SQL =
+            "UPDATE rate_limit_windows SET used = used + ? WHERE user_id = ? AND window_start = ?";
+    private static final String RELEASE_SQL =
+            "UPDATE rate_limit_windows SET used = used - 1 WHERE user_id = ? AND window_start = ? AND used > 0";
+    private static final String DELETE_OLD_WINDOWS_SQL =
+            "DELETE FROM rate_limit_windows WHERE user_id = ? AND window_start < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TranscriptionRepository transcriptionRepository;
+    private final Clock clock;
+    private final Map<Role, Integer> limits;
+    private final long windowMillis;
+
+    @Autowired
+    public JdbcRateLimiter(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           TranscriptionRepository transcriptionRepository,
+                           @Value("${transcription.rate-limit.user-limit:4}") int userLimit,
+                           @Value("${transcription.rate-limit.admin-limit:100}") int adminLimit,
+                           @Value("${transcription.rate-limit.window:24h}") Duration window) {
+        this(jdbcTemplate, transactionManager, transcriptionRepository, Clock.systemDefaultZone(),
+                InMemoryRateLimiter.limits(userLimit, adminLimit), window);
+    }
+
+    JdbcRateLimiter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                    TranscriptionRepository transcriptionRepository, Clock clock, Map<Role, Integer> limits, Duration window) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transcriptionRepository = transcriptionRepository;
+        this.clock = clock;
+        this.limits = limits;
+        this.windowMillis = window.toMillis();
+    }
+
+    @Override
+    public Optional<Reservation> reserve(Long userId, Role role) {
+        int limit = limits.getOrDefault(role != null ? role : Role.USER, limits.get(Role.USER));
+        long windowStart = clock.millis() / windowMillis * windowMillis;
+        Reservation reservation = new Reservation(userId, windowStart);
+
+        // One statement decides; a full window costs nothing beyond it
+        int affectedRows = jdbcTemplate.update(RESERVE_SQL, userId, windowStart, limit);
+        if (affectedRows == INCREMENTED) {
+            return Optional.of(reservation);
+        }
+        if (affectedRows != INSERTED) {
+            return Optional.empty();
+        }
+        return seedNewWindow(reservation, limit) ? Optional.of(reservation) : Optional.empty();
+    }
+
+    /**
+     * First request of the window, in one transaction holding the lock on the new counter row:
+     * drops the user's older windows and, if there were none, adds the records already saved in the
+     * window. A user with an older window was being counted here all along, so a record saved now
+     * belongs to a reservation already counted (one that straddled the boundary) and is not counted
+     * again. Without one, the store was just switched on and the saved records would otherwise be free.
+     * Reservations that incremented the row between the insert and the lock are kept; that gap only
+     * matters for the first window after switching stores.
+     */
+    private boolean seedNewWindow(Reservation reservation, int limit) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Integer used = jdbcTemplate.queryForObject(LOCK_WINDOW_SQL, Integer.class, reservation.userId(), reservation.slot());
+            if (jdbcTemplate.update(DELETE_OLD_WINDOWS_SQL, reservation.userId(), reservation.slot()) > 0) {
+                return true;
+            }
+            long alreadyUsed = transcriptionRepository.countByUserIdAndCreatedDateAfter(reservation.userId(),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(reservation.slot()), clock.getZone()));
+            if (alreadyUsed == 0) {
+                return true;
+            }
+            boolean fits = used + alreadyUsed <= limit;
+            // A full window keeps the saved count but not this request's slot
+            jdbcTemplate.update(SEED_WINDOW_SQL, fits ? alreadyUsed : alreadyUsed - 1, reservation.userId(), reservation.slot());
+            return fits;
+        }));
+    }
+
+    // The counter already includes the slot from the moment it was reserved; there is nothing to flip
+    @Override
+    public void commit(Reservation reservation) {
+    }
+
+    @Override
+    public void release(Reservation reservation) {
+        jdbcTemplate.update(RELEASE_SQL, reservation.userId(), reservation.slot());
+    }
+}
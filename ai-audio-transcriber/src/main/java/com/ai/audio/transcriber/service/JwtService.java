@@ -1,82 +1,158 @@
 package com.ai.audio.transcriber.service;
 
+import com.ai.audio.transcriber.model.AuthenticatedUser;
+import com.ai.audio.transcriber.model.Role;
+import com.ai.audio.transcriber.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.RequiredTypeException;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    // IMPORTANT: Store this in application.properties and keep it secure!
-    // A long, base64-encoded secret key is required (e.g., 256 bits/32 bytes)
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
+    // Claims that let JwtAuthFilter build the principal without a user lookup
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
 
-    @Value("${application.security.jwt.expiration}")
-    private long jwtExpiration; // e.g., 86400000ms = 24 hours
+    // Decoded and built once; both are immutable and thread-safe
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    private final long jwtExpiration; // e.g., 86400000ms = 24 hours
+    private final int claimsCacheSize;
+
+    // Token -> verified claims, so a token's signature is checked once rather than on every request.
+    // Entries die with the token's exp.
+    private final Map<String, Claims> verifiedClaims = new ConcurrentHashMap<>();
+
+    public JwtService(
+            // IMPORTANT: Store this in application.properties and keep it secure!
+            // A long, base64-encoded secret key is required (e.g., 256 bits/32 bytes)
+            @Value("${application.security.jwt.secret-key}") String secretKey,
+            @Value("${application.security.jwt.expiration}") long jwtExpiration,
+            @Value("${application.security.jwt.claims-cache-size:10000}") int claimsCacheSize) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.jwtExpiration = jwtExpiration;
+        this.claimsCacheSize = claimsCacheSize;
+    }
+
+    /**
+     * Verified, unexpired claims of the token. The signature is only checked on the first call
+     * for a given token; later calls are a map lookup plus the expiry check.
+     *
+     * @throws JwtException if the token is malformed, badly signed or expired
+     */
+    public Claims verifiedClaims(String token) {
+        Claims claims = verifiedClaims.get(token);
+        if (claims != null) {
+            if (!isExpired(claims)) {
+                return claims;
+            }
+            verifiedClaims.remove(token);
+        }
+
+        // Throws ExpiredJwtException itself for tokens that are already past exp
+        claims = parser.parseSignedClaims(token).getPayload();
+        if (verifiedClaims.size() >= claimsCacheSize) {
+            evictClaims();
+        }
+        verifiedClaims.put(token, claims);
+        return claims;
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verifiedClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
     public String generateToken(UserDetails userDetails) {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    /**
+     * Token carrying the user id and role next to the email, for stateless authentication.
+     */
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        return buildToken(claims, user.getEmail());
+    }
+
+    /**
+     * Principal from the uid/role claims. Empty for tokens issued before those claims existed,
+     * the caller then falls back to loading the user.
+     */
+    public Optional<AuthenticatedUser> principal(Claims claims) {
+        try {
+            Long userId = claims.get(USER_ID_CLAIM, Long.class);
+            String role = claims.get(ROLE_CLAIM, String.class);
+            if (userId == null || role == null || claims.getSubject() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthenticatedUser(userId, claims.getSubject(), Role.valueOf(role)));
+        } catch (RequiredTypeException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     public String generateToken(
             Map<String, Object> extraClaims,
             UserDetails userDetails
     ) {
+        return buildToken(extraClaims, userDetails.getUsername());
+    }
+
+    private String buildToken(Map<String, Object> extraClaims, String subject) {
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
+                .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        final Claims claims = verifiedClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !isExpired(claims);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Expired tokens go first; if the cache is still full, make room by dropping arbitrary entries
+    private void evictClaims() {
+        verifiedClaims.values().removeIf(JwtService::isExpired);
+        Iterator<String> tokens = verifiedClaims.keySet().iterator();
+        while (verifiedClaims.size() >= claimsCacheSize && tokens.hasNext()) {
+            tokens.next();
+            tokens.remove();
+        }
     }
-}
\ No newline at end of file
+}
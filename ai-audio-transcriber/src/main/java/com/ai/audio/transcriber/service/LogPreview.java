@@ -0,0 +1,41 @@
+package com.ai.audio.transcriber.service;
+
+/**
+ * Size-bounded, single-line view of a payload for log messages (provider responses, transcripts,
+ * error bodies). Pass it as a log argument: nothing is copied unless the message is rendered, so
+ * a disabled level costs nothing, and a long transcript never turns into megabytes of log.
+ * As a key/value pair, add it as a supplier of its {@code toString()}: the JSON encoder writes
+ * key/value objects as JSON rather than as text.
+ */
+final class LogPreview {
+
+    static final int DEFAULT_MAX_CHARS = 256;
+
+    private final CharSequence text;
+    private final int maxChars;
+
+    private LogPreview(CharSequence text, int maxChars) {
+        this.text = text;
+        this.maxChars = maxChars;
+    }
+
+    static LogPreview of(CharSequence text) {
+        return new LogPreview(text, DEFAULT_MAX_CHARS);
+    }
+
+    static LogPreview of(CharSequence text, int maxChars) {
+        return new LogPreview(text, maxChars);
+    }
+
+    @Override
+    public String toString() {
+        if (text == null) {
+            return "null";
+        }
+        String preview = text.length() <= maxChars
+                ? text.toString()
+                : text.subSequence(0, maxChars) + "...(" + text.length() + " chars)";
+        // One event per line, whatever the payload contains
+        return preview.replace('\r', ' ').replace('\n', ' ');
+    }
+}
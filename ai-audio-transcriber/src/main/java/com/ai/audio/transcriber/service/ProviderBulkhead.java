@@ -0,0 +1,197 @@
+package com.ai.audio.transcriber.service;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Caps the calls in flight to one provider path, so a slow provider can only hold its own share
+ * of the request threads. Callers over the limit wait in a bounded queue for a bounded time;
+ * beyond that they are rejected at once with a 503 ({@link ProviderBusyException}).
+ * <p>
+ * In adaptive mode the limit follows the observed latency (AIMD): every call that finishes within
+ * the target latency raises the limit by 1/limit, every slower one cuts it by the backoff ratio.
+ * The limit stays between {@code minConcurrent} and {@code maxConcurrent}.
+ */
+public class ProviderBulkhead {
+
+    private record Permit(long startedAt) {
+    }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final Duration retryAfter;
+
+    private final boolean adaptive;
+    private final int minConcurrent;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitFreed = lock.newCondition();
+    private int inFlight;
+    private int waiting;
+    private double limit;
+
+    public ProviderBulkhead(String name, int maxConcurrent, int maxWaiting, Duration maxWait, Duration retryAfter) {
+        this(name, maxConcurrent, maxWaiting, maxWait, retryAfter, false, maxConcurrent, Duration.ZERO, 1.0);
+    }
+
+    public ProviderBulkhead(String name, int maxConcurrent, int maxWaiting, Duration maxWait, Duration retryAfter,
+                            boolean adaptive, int minConcurrent, Duration targetLatency, double backoffRatio) {
+        if (maxConcurrent < 1 || minConcurrent < 1 || minConcurrent > maxConcurrent) {
+            throw new IllegalArgumentException("Bulkhead " + name + " needs 1 <= min-concurrent <= max-concurrent");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.retryAfter = retryAfter;
+        this.adaptive = adaptive;
+        this.minConcurrent = minConcurrent;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = maxConcurrent;
+    }
+
+    /**
+     * Runs a blocking call inside the bulkhead.
+     *
+     * @throws ProviderBusyException if no slot frees up in time or the wait queue is full
+     */
+    public <T, E extends Exception> T call(CheckedSupplier<T, E> call) throws E {
+        Permit permit = acquire();
+        try {
+            return call.get();
+        } finally {
+            release(permit);
+        }
+    }
+
+    /**
+     * Reactive variant: the slot is taken on subscription and given back on completion, error or
+     * cancel. If the caller has to wait, it waits on the bounded elastic scheduler.
+     */
+    public <T> Mono<T> mono(Supplier<Mono<T>> call) {
+        return Mono.usingWhen(acquireAsync(), permit -> call.get(),
+                this::releaseAsync, (permit, e) -> releaseAsync(permit), this::releaseAsync);
+    }
+
+    public <T> Flux<T> flux(Supplier<? extends Publisher<T>> call) {
+        return Flux.usingWhen(acquireAsync(), permit -> call.get(),
+                this::releaseAsync, (permit, e) -> releaseAsync(permit), this::releaseAsync);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int waiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Mono<Permit> acquireAsync() {
+        return Mono.defer(() -> {
+            Permit permit = tryAcquire();
+            return permit != null
+                    ? Mono.just(permit)
+                    : Mono.fromCallable(this::acquire).subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    private Mono<Void> releaseAsync(Permit permit) {
+        return Mono.fromRunnable(() -> release(permit));
+    }
+
+    private Permit tryAcquire() {
+        lock.lock();
+        try {
+            if (waiting == 0 && inFlight < (int) limit) {
+                inFlight++;
+                return new Permit(System.nanoTime());
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit acquire() {
+        lock.lock();
+        try {
+            if (waiting == 0 && inFlight < (int) limit) {
+                inFlight++;
+                return new Permit(System.nanoTime());
+            }
+            if (waiting >= maxWaiting) {
+                throw new ProviderBusyException(name, retryAfter);
+            }
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        throw new ProviderBusyException(name, retryAfter);
+                    }
+                    remaining = permitFreed.awaitNanos(remaining);
+                }
+                inFlight++;
+                return new Permit(System.nanoTime());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProviderBusyException(name, retryAfter);
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Permit permit) {
+        long latency = System.nanoTime() - permit.startedAt();
+        lock.lock();
+        try {
+            inFlight--;
+            if (adaptive) {
+                limit = latency <= targetLatencyNanos
+                        ? Math.min(maxConcurrent, limit + 1.0 / limit)
+                        : Math.max(minConcurrent, limit * backoffRatio);
+            }
+            permitFreed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ai.audio.transcriber.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * 503 for a request turned away by a provider bulkhead or an open circuit breaker,
+ * with a Retry-After hint for the client.
+ */
+public class ProviderBusyException extends ResponseStatusException {
+
+    private final Duration retryAfter;
+
+    public ProviderBusyException(String provider, Duration retryAfter) {
+        this(provider, "is at capacity, please retry later.", retryAfter);
+    }
+
+    public ProviderBusyException(String provider, String reason, Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, provider + " " + reason);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(super.getHeaders());
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        return headers;
+    }
+}
@@ -0,0 +1,273 @@
+package com.ai.audio.transcriber.service;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for one provider. The outcome of the last {@code windowSize} calls is kept in a
+ * ring; once at least {@code minimumCalls} are recorded and the failure rate or the slow call rate
+ * reaches its threshold, the breaker opens and calls are refused without touching the provider.
+ * After {@code openDuration} a few trial calls are let through (half-open): all of them succeeding
+ * closes the breaker, any failure opens it again.
+ * <p>
+ * Only provider trouble counts as a failure: client errors (4xx other than 408/429) and bulkhead
+ * rejections are ignored, cancelled calls are not recorded at all.
+ */
+public class ProviderCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final byte OUTCOME_NONE = 0;
+    private static final byte OUTCOME_OK = 1;
+    private static final byte OUTCOME_SLOW = 2;
+    private static final byte OUTCOME_FAILED = 3;
+
+    private final String name;
+    private final Clock clock;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallMillis;
+    private final double slowCallRateThreshold;
+    private final long openMillis;
+    private final int halfOpenCalls;
+
+    // Guarded by this
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    public ProviderCircuitBreaker(String name, Clock clock, int windowSize, int minimumCalls, double failureRateThreshold,
+                                  Duration slowCallThreshold, double slowCallRateThreshold,
+                                  Duration openDuration, int halfOpenCalls) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("Circuit breaker " + name + " needs 1 <= minimum-calls <= window-size and half-open-calls >= 1");
+        }
+        this.name = name;
+        this.clock = clock;
+        this.outcomes = new byte[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallMillis = slowCallThreshold.toMillis();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openMillis = openDuration.toMillis();
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * Whether a call would be let through right now, without taking a trial slot.
+     * Used for routing; the call itself still goes through {@link #call}, {@link #mono} or {@link #flux}.
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (currentState()) {
+            case CLOSED -> true;
+            case HALF_OPEN -> trialsStarted < halfOpenCalls;
+            case OPEN -> false;
+        };
+    }
+
+    public <T, E extends Exception> T call(CheckedSupplier<T, E> call) throws E {
+        long startedAt = acquirePermission();
+        try {
+            T result = call.get();
+            onSuccess(startedAt);
+            return result;
+        } catch (Exception e) {
+            onError(startedAt, e);
+            throw e;
+        }
+    }
+
+    public <T> Mono<T> mono(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long startedAt = acquirePermission();
+            return call.get()
+                    .doOnSuccess(result -> onSuccess(startedAt))
+                    .doOnError(e -> onError(startedAt, e))
+                    .doOnCancel(this::onCancel);
+        });
+    }
+
+    public <T> Flux<T> flux(Supplier<? extends Publisher<T>> call) {
+        return Flux.defer(() -> {
+            long startedAt = acquirePermission();
+            return Flux.<T>from(call.get())
+                    .doOnComplete(() -> onSuccess(startedAt))
+                    .doOnError(e -> onError(startedAt, e))
+                    .doOnCancel(this::onCancel);
+        });
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public synchronized State state() {
+        return currentState();
+    }
+
+    // Share of failed calls in the current window, 0 until minimum-calls are recorded
+    public synchronized double failureRate() {
+        return recorded < minimumCalls ? 0.0 : (double) failures / recorded;
+    }
+
+    public synchronized double slowCallRate() {
+        return recorded < minimumCalls ? 0.0 : (double) slowCalls / recorded;
+    }
+
+    // How long until an open breaker lets trial calls through
+    public synchronized Duration retryAfter() {
+        if (currentState() != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(Math.max(0, openedAt + openMillis - clock.millis()));
+    }
+
+    public ProviderBusyException notPermitted() {
+        return new ProviderBusyException(name, "is temporarily unavailable, please retry later.", retryAfter());
+    }
+
+    private long acquirePermission() {
+        synchronized (this) {
+            State current = currentState();
+            if (current == State.CLOSED) {
+                return clock.millis();
+            }
+            if (current == State.HALF_OPEN && trialsStarted < halfOpenCalls) {
+                trialsStarted++;
+                return clock.millis();
+            }
+        }
+        throw notPermitted();
+    }
+
+    private synchronized void onSuccess(long startedAt) {
+        boolean slow = clock.millis() - startedAt > slowCallMillis;
+        if (state == State.HALF_OPEN) {
+            if (slow) {
+                open();
+            } else if (++trialsSucceeded >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(slow ? OUTCOME_SLOW : OUTCOME_OK);
+        }
+    }
+
+    private synchronized void onError(long startedAt, Throwable e) {
+        if (!isProviderFailure(e)) {
+            // Says nothing about the provider; a trial slot is handed back
+            onCancel();
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(OUTCOME_FAILED);
+        }
+    }
+
+    private synchronized void onCancel() {
+        if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+            trialsStarted--;
+        }
+    }
+
+    private State currentState() {
+        if (state == State.OPEN && clock.millis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        return state;
+    }
+
+    private void record(byte outcome) {
+        forget(outcomes[next]);
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        if (recorded < outcomes.length) {
+            recorded++;
+        }
+        if (outcome == OUTCOME_FAILED) {
+            failures++;
+        } else if (outcome == OUTCOME_SLOW) {
+            slowCalls++;
+        }
+
+        if (recorded >= minimumCalls
+                && ((double) failures / recorded >= failureRateThreshold || (double) slowCalls / recorded >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    private void forget(byte outcome) {
+        if (outcome == OUTCOME_FAILED) {
+            failures--;
+        } else if (outcome == OUTCOME_SLOW) {
+            slowCalls--;
+        }
+    }
+
+    private void open() {
+        log.atWarn().setMessage("Circuit breaker opened")
+                .addKeyValue("breaker", name)
+                .addKeyValue("failureRate", failureRate())
+                .addKeyValue("slowCallRate", slowCallRate())
+                .log();
+        state = State.OPEN;
+        openedAt = clock.millis();
+    }
+
+    private void close() {
+        log.atInfo().setMessage("Circuit breaker closed").addKeyValue("breaker", name).log();
+        state = State.CLOSED;
+        Arrays.fill(outcomes, OUTCOME_NONE);
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    /**
+     * Server errors, timeouts and connection failures count; requests the provider rejected as
+     * malformed do not, and neither do bulkhead rejections (nothing was sent).
+     */
+    static boolean isProviderFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ProviderBusyException) {
+                return false;
+            }
+            int status = cause instanceof ResponseStatusException statusException ? statusException.getStatusCode().value()
+                    : cause instanceof WebClientResponseException responseException ? responseException.getStatusCode().value()
+                    : -1;
+            if (status >= 400 && status < 500
+                    && status != HttpStatus.REQUEST_TIMEOUT.value() && status != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
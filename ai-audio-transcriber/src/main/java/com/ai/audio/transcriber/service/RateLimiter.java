@@ -0,0 +1,39 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.model.Role;
+
+import java.util.Optional;
+
+/**
+ * Per-user transcription quota. A slot is reserved atomically before the work starts, so
+ * concurrent requests can never both take the last one; the caller then either commits it
+ * (a record was saved) or releases it (the work failed and should not count).
+ * <p>
+ * Select the store with {@code transcription.rate-limit.store}: {@code memory} for a single
+ * instance, {@code jdbc} to share the counters between instances through MySQL.
+ */
+public interface RateLimiter {
+
+    /**
+     * Empty when the user has no slot left in the current window.
+     */
+    Optional<Reservation> reserve(Long userId, Role role);
+
+    /**
+     * Keeps the reserved slot. Both stores count a slot from the moment it is reserved,
+     * so this only marks the end of the reservation.
+     */
+    default void commit(Reservation reservation) {
+    }
+
+    /**
+     * Gives the reserved slot back.
+     */
+    void release(Reservation reservation);
+
+    /**
+     * @param userId owner of the slot
+     * @param slot   store-specific identity of the slot (admission time or window start)
+     */
+    record Reservation(Long userId, long slot) {}
+}
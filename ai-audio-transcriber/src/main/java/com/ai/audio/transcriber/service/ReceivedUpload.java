@@ -0,0 +1,10 @@
+package com.ai.audio.transcriber.service;
+
+import java.nio.file.Path;
+
+/**
+ * An upload copied into a temp file of our own, with its SHA-256 taken on the same read.
+ * Whoever received it deletes the file once the providers are done with it.
+ */
+record ReceivedUpload(AudioSource audio, String contentHash, Path file) {
+}
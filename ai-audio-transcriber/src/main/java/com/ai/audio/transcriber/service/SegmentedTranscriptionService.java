@@ -0,0 +1,101 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.audio.AudioSegment;
+import com.ai.audio.transcriber.audio.SilenceDetector;
+import com.ai.audio.transcriber.audio.TranscriptStitcher;
+import com.ai.audio.transcriber.audio.WavFormat;
+import com.ai.audio.transcriber.audio.WavSegmenter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * OpenAI transcription that splits long WAV recordings into overlapping segments, transcribes
+ * them concurrently on the segment executor (its pool size is the parallelism cap) and stitches
+ * the text back in order. Anything that is not 16-bit PCM WAV, or is short, goes to Whisper whole.
+ */
+@Service
+public class SegmentedTranscriptionService {
+
+    private final WhisperClient whisperClient;
+    private final TaskExecutor segmentExecutor;
+    private final WavSegmenter segmenter;
+    private final TranscriptStitcher stitcher;
+
+    @Value("${transcription.segmented.enabled:true}")
+    private boolean enabled;
+
+    @Value("${transcription.segmented.min-duration:10m}")
+    private Duration minDuration;
+
+    public SegmentedTranscriptionService(WhisperClient whisperClient,
+                                         @Qualifier("segmentTranscriptionExecutor") TaskExecutor segmentExecutor,
+                                         SilenceDetector silenceDetector,
+                                         @Value("${transcription.segmented.target-segment:5m}") Duration targetSegment,
+                                         @Value("${transcription.segmented.overlap:2s}") Duration overlap,
+                                         @Value("${transcription.segmented.search-window:5s}") Duration searchWindow,
+                                         @Value("${transcription.segmented.max-segment-size:24MB}") DataSize maxSegmentSize) {
+        this.whisperClient = whisperClient;
+        this.segmentExecutor = segmentExecutor;
+        this.segmenter = new WavSegmenter(silenceDetector, targetSegment, overlap, searchWindow, maxSegmentSize.toBytes());
+        this.stitcher = new TranscriptStitcher(50);
+    }
+
+    public String transcribe(AudioSource audio) throws IOException {
+        Optional<WavFormat> format = enabled ? readFormat(audio) : Optional.empty();
+        if (format.isEmpty() || format.get().duration().compareTo(minDuration) < 0) {
+            return whisperClient.transcribe(audio.resource());
+        }
+
+        List<AudioSegment> segments = segmenter.plan(audio.resource(), format.get());
+        if (segments.size() == 1) {
+            return whisperClient.transcribe(audio.resource());
+        }
+
+        // Segments are only read into memory once a worker picks them up
+        List<CompletableFuture<String>> transcripts = segments.stream()
+                .map(segment -> CompletableFuture.supplyAsync(
+                        () -> whisperClient.transcribe(extract(audio, format.get(), segment)), segmentExecutor))
+                .toList();
+
+        List<String> texts = new ArrayList<>(segments.size());
+        try {
+            for (CompletableFuture<String> transcript : transcripts) {
+                texts.add(transcript.join());
+            }
+        } catch (CompletionException e) {
+            // One failed segment fails the whole transcription; segments still queued are not sent
+            transcripts.forEach(future -> future.cancel(false));
+            throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+        }
+
+        return stitcher.stitch(texts);
+    }
+
+    private Optional<WavFormat> readFormat(AudioSource audio) throws IOException {
+        try (InputStream in = audio.resource().getInputStream()) {
+            return WavFormat.read(in, audio.size());
+        }
+    }
+
+    private Resource extract(AudioSource audio, WavFormat format, AudioSegment segment) {
+        try {
+            return segmenter.extract(audio.resource(), format, segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.audio.AudioRegion;
+import com.ai.audio.transcriber.audio.AudioSegment;
+import com.ai.audio.transcriber.audio.SilenceDetector;
+import com.ai.audio.transcriber.audio.WavFormat;
+import com.ai.audio.transcriber.audio.WavSliceResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Drops leading and trailing silence from PCM WAV uploads before they go to a provider,
+ * so we neither upload nor pay for minutes of dead air at the start and end of a recording.
+ * Other formats, and WAVs with little to trim, are passed through untouched.
+ */
+@Component
+public class SilenceTrimmer {
+
+    private static final Logger log = LoggerFactory.getLogger(SilenceTrimmer.class);
+
+    private final SilenceDetector silenceDetector;
+
+    @Value("${transcription.silence.trim-enabled:true}")
+    private boolean enabled;
+
+    // Silence kept around the speech so the first and last words are not clipped
+    @Value("${transcription.silence.trim-padding:250ms}")
+    private Duration padding;
+
+    // Below this there is nothing worth saving, the original is used as is
+    @Value("${transcription.silence.min-trim:1s}")
+    private Duration minTrim;
+
+    public SilenceTrimmer(SilenceDetector silenceDetector) {
+        this.silenceDetector = silenceDetector;
+    }
+
+    public AudioSource trim(AudioSource audio) throws IOException {
+        if (!enabled) {
+            return audio;
+        }
+        Optional<WavFormat> format;
+        try (InputStream in = audio.resource().getInputStream()) {
+            format = WavFormat.read(in, audio.size());
+        }
+        if (format.isEmpty()) {
+            return audio;
+        }
+
+        WavFormat wav = format.get();
+        List<AudioRegion> regions = silenceDetector.detect(audio.resource(), wav);
+        AudioSegment speech = SilenceDetector.speechBounds(regions, wav.bytesFor(padding), wav.dataLength());
+        // All silence: let the provider say so rather than sending an empty file
+        if (speech.length() == 0 || wav.dataLength() - speech.length() < wav.bytesFor(minTrim)) {
+            return audio;
+        }
+
+        log.debug("Trimmed silence file={} dataBytes={} speechBytes={}", audio.fileName(), wav.dataLength(), speech.length());
+        WavSliceResource trimmed = new WavSliceResource(audio.resource(), wav, speech);
+        return new AudioSource(audio.fileName(), audio.mimeType(), trimmed.contentLength(), trimmed);
+    }
+}
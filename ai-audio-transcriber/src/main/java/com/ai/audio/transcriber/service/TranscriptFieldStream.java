@@ -0,0 +1,80 @@
+package com.ai.audio.transcriber.service;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pulls the {@code transcript} string out of Gemini's structured output while it is still being
+ * streamed, so the streaming endpoint can show the transcript as it is written even though the
+ * answer is a JSON object. The schema orders the transcript first; the chunks are kept so the
+ * whole object can be parsed once the stream ends.
+ */
+final class TranscriptFieldStream {
+
+    private static final Pattern FIELD_START = Pattern.compile("\"transcript\"\\s*:\\s*\"");
+
+    private final StringBuilder json = new StringBuilder();
+    // Index of the next unread character of the transcript value, -1 until its opening quote is seen
+    private int position = -1;
+    private boolean complete;
+
+    /**
+     * Adds a chunk of the JSON answer and returns the transcript text it completes (may be empty).
+     * An escape sequence cut in half by a chunk boundary is held back until the rest arrives.
+     */
+    String append(String chunk) {
+        json.append(chunk);
+        if (complete) {
+            return "";
+        }
+        if (position < 0) {
+            Matcher matcher = FIELD_START.matcher(json);
+            if (!matcher.find()) {
+                return "";
+            }
+            position = matcher.end();
+        }
+
+        StringBuilder text = new StringBuilder();
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c == '"') {
+                complete = true;
+                position++;
+                break;
+            }
+            if (c != '\\') {
+                text.append(c);
+                position++;
+                continue;
+            }
+            if (position + 1 >= json.length()) {
+                break;
+            }
+            char escaped = json.charAt(position + 1);
+            if (escaped == 'u') {
+                if (position + 6 > json.length()) {
+                    break;
+                }
+                text.append((char) Integer.parseInt(json.substring(position + 2, position + 6), 16));
+                position += 6;
+                continue;
+            }
+            text.append(switch (escaped) {
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                case 't' -> '\t';
+                case 'b' -> '\b';
+                case 'f' -> '\f';
+                default -> escaped; // \" \\ \/
+            });
+            position += 2;
+        }
+        return text.toString();
+    }
+
+    // Everything received so far, for the final parse
+    String json() {
+        return json.toString();
+    }
+}
@@ -5,8 +5,10 @@ import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
@@ -21,12 +23,36 @@ public class TranscriptionAnalysisService {
     private String geminiApiKey;
 
     private final ChatClient chatClient;
+    private final ProviderBulkhead summarizeBulkhead;
+    private final TranscriptionMetrics metrics;
 
-    public TranscriptionAnalysisService(ChatClient.Builder chatClientBuilder) {
+    public TranscriptionAnalysisService(ChatClient.Builder chatClientBuilder,
+                                        @Qualifier("summarizeBulkhead") ProviderBulkhead summarizeBulkhead,
+                                        TranscriptionMetrics metrics) {
         this.chatClient = chatClientBuilder.build();
+        this.summarizeBulkhead = summarizeBulkhead;
+        this.metrics = metrics;
     }
 
     public String summarize(String transcriptionText) {
+        // Timed around the bulkhead, so time spent waiting for a slot shows up in the stage
+        return metrics.time("summarize", TranscriptionMetrics.PROVIDER_OPENAI, () -> summarizeBulkhead.call(() -> chatClient
+                .prompt(buildPrompt(transcriptionText))   // note: prompt(...) returns ChatClientPromptRequestSpec
+                .call()           // triggers the model call
+                .content()));     // retrieves the response text
+    }
+
+    /**
+     * Same analysis as {@link #summarize(String)}, emitted token by token as the model produces it.
+     */
+    public Flux<String> summarizeStream(String transcriptionText) {
+        return metrics.timeFlux("summarize_stream", TranscriptionMetrics.PROVIDER_OPENAI, () -> summarizeBulkhead.flux(() -> chatClient
+                .prompt(buildPrompt(transcriptionText))
+                .stream()
+                .content()));
+    }
+
+    private Prompt buildPrompt(String transcriptionText) {
 
         String systemMessageText = "You are an expert transcriber assistant. " +
                 "Analyze the following text and provide a concise summary, 3-5 key bullet points, and a suggested title. " +
@@ -48,16 +74,10 @@ public class TranscriptionAnalysisService {
         String userMessageText = template.render(Map.of("transcription", transcriptionText));
 
 
-        Prompt prompt = new Prompt(List.of(
+        return new Prompt(List.of(
                 new SystemMessage(systemMessageText),
                 new UserMessage(userMessageText)
         ));
-
-
-        return chatClient
-                .prompt(prompt)   // note: prompt(...) returns ChatClientPromptRequestSpec
-                .call()           // triggers the model call
-                .content();       // retrieves the response text
     }
 
 
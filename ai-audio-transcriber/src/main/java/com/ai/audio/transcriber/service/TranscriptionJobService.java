@@ -0,0 +1,137 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.dto.TranscriptionResult;
+import com.ai.audio.transcriber.model.JobStatus;
+import com.ai.audio.transcriber.model.TranscriptionJob;
+import com.ai.audio.transcriber.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs transcriptions off the request thread. The request only resolves the user, checks the
+ * rate limit and receives the upload; the provider calls happen on the transcription executor.
+ * <p>
+ * Jobs only live in the memory of the instance that accepted them: after a restart (or on another
+ * instance) a job id is unknown and answers 404. The record of a finished job is in the history either way.
+ */
+@Service
+public class TranscriptionJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(TranscriptionJobService.class);
+
+    private final TranscriptionService transcriptionService;
+    private final TaskExecutor transcriptionExecutor;
+    private final TranscriptionMetrics metrics;
+    private final Clock clock;
+    // How long finished jobs stay queryable before they are dropped from memory
+    private final Duration retention;
+    private final Map<String, TranscriptionJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TranscriptionJobService(TranscriptionService transcriptionService,
+                                   @Qualifier("transcriptionExecutor") TaskExecutor transcriptionExecutor,
+                                   TranscriptionMetrics metrics,
+                                   @Value("${transcription.jobs.retention-minutes:60}") long retentionMinutes) {
+        this(transcriptionService, transcriptionExecutor, metrics, Clock.systemDefaultZone(), Duration.ofMinutes(retentionMinutes));
+    }
+
+    TranscriptionJobService(TranscriptionService transcriptionService, TaskExecutor transcriptionExecutor,
+                            TranscriptionMetrics metrics, Clock clock, Duration retention) {
+        this.transcriptionService = transcriptionService;
+        this.transcriptionExecutor = transcriptionExecutor;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.retention = retention;
+    }
+
+    public TranscriptionJob submit(MultipartFile file, String model) throws IOException {
+        User currentUser = transcriptionService.getCurrentAuthenticatedUser();
+        evictFinishedJobs();
+
+        TranscriptionJob job = new TranscriptionJob(UUID.randomUUID().toString(), currentUser.getId(), file.getOriginalFilename(), model);
+
+        // The multipart part is cleaned up when the request ends; the received copy is the job's own
+        ReceivedUpload upload = transcriptionService.receive(file, model);
+        RateLimiter.Reservation reservation;
+        try {
+            // Known audio completes the job right away, nothing is queued
+            Optional<TranscriptionResult> cached = transcriptionService.findCachedResult(currentUser, upload.contentHash(), model, file.getOriginalFilename());
+            if (cached.isPresent()) {
+                transcriptionService.deleteTempFile(upload.file());
+                job.complete(cached.get());
+                jobs.put(job.getId(), job);
+                return job;
+            }
+            reservation = transcriptionService.checkSlidingWindowLimit(currentUser);
+        } catch (RuntimeException e) {
+            transcriptionService.deleteTempFile(upload.file());
+            throw e;
+        }
+        jobs.put(job.getId(), job);
+
+        try {
+            transcriptionExecutor.execute(() -> run(job, currentUser, upload, reservation));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            transcriptionService.deleteTempFile(upload.file());
+            transcriptionService.releaseRateLimit(reservation);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Transcription queue is full, please retry later.");
+        }
+        return job;
+    }
+
+    public TranscriptionJob getJob(String jobId) {
+        User currentUser = transcriptionService.getCurrentAuthenticatedUser();
+        TranscriptionJob job = jobs.get(jobId);
+        // Jobs of other users are reported as missing, same as unknown ids
+        if (job == null || !job.getUserId().equals(currentUser.getId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Transcription job not found.");
+        }
+        return job;
+    }
+
+    private void run(TranscriptionJob job, User user, ReceivedUpload upload, RateLimiter.Reservation reservation) {
+        job.markRunning();
+        try {
+            // Own root span; the executor carries the submitting request's trace over as its parent
+            TranscriptionResult result = metrics.observeRequest(TranscriptionService.providerModel(job.getModel()),
+                    () -> transcriptionService.transcribeAndAnalyze(user, upload.audio(), upload.contentHash(), job.getModel(), job::updateUploadProgress));
+            transcriptionService.commitRateLimit(reservation);
+            job.complete(result);
+        } catch (ResponseStatusException e) {
+            transcriptionService.releaseRateLimit(reservation);
+            job.fail(e.getReason());
+        } catch (Exception e) {
+            log.error("Transcription job {} failed", job.getId(), e);
+            transcriptionService.releaseRateLimit(reservation);
+            job.fail("Transcription failed.");
+        } finally {
+            transcriptionService.deleteTempFile(upload.file());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(retention);
+        jobs.values().removeIf(job -> (job.getStatus() == JobStatus.COMPLETED || job.getStatus() == JobStatus.FAILED)
+                && job.getFinishedDate() != null
+                && job.getFinishedDate().isBefore(cutoff));
+    }
+}
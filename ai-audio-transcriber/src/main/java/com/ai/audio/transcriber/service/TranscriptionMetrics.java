@@ -0,0 +1,138 @@
+package com.ai.audio.transcriber.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.reactivestreams.Publisher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Observations for the transcription pipeline. Every stage is one {@code transcription.stage}
+ * observation with tags {@code stage}, {@code provider} and {@code outcome} (success, error,
+ * rejected, cancelled), which gives both a timer and a span. The timers are published with
+ * percentile histograms, so p99 per stage can be read from Prometheus:
+ * {@code histogram_quantile(0.99, sum by (le, stage) (rate(transcription_stage_seconds_bucket[5m])))}.
+ * <p>
+ * The stages of one request hang under its {@link #observeRequest request} span, and the WebClient /
+ * RestClient exchanges made inside a stage (http.client.requests) under the stage span.
+ */
+@Component
+public class TranscriptionMetrics {
+
+    public static final String PROVIDER_GEMINI = "gemini";
+    public static final String PROVIDER_OPENAI = "openai";
+    // Stages that are not tied to a provider (spool, save, ...)
+    public static final String PROVIDER_NONE = "none";
+
+    private static final String REQUEST_OBSERVATION = "transcription.request";
+    private static final String STAGE_OBSERVATION = "transcription.stage";
+
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+
+    public TranscriptionMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+    }
+
+    /**
+     * Root of one transcription (sync request or job), so that all of its stages and provider calls
+     * end up in the same trace.
+     */
+    public <T, E extends Exception> T observeRequest(String provider, CheckedSupplier<T, E> call) throws E {
+        Observation observation = Observation.createNotStarted(REQUEST_OBSERVATION, observationRegistry)
+                .contextualName("transcribe")
+                .lowCardinalityKeyValue("provider", provider);
+        return observe(observation, call);
+    }
+
+    public <T, E extends Exception> T time(String stage, String provider, CheckedSupplier<T, E> call) throws E {
+        return observe(stage(stage, provider), call);
+    }
+
+    /**
+     * Times the Mono from subscription to completion. Wrap the publisher, not the method that
+     * builds it, so the clock starts when the work does. The observation is put in the Reactor
+     * context, which is where WebClient looks for the parent of its exchange.
+     */
+    public <T> Mono<T> timeMono(String stage, String provider, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            Observation observation = stage(stage, provider).start();
+            return call.get()
+                    .doOnSuccess(result -> stop(observation, "success"))
+                    .doOnError(e -> stop(observation.error(e), outcome(e)))
+                    .doOnCancel(() -> stop(observation, "cancelled"))
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    public <T> Flux<T> timeFlux(String stage, String provider, Supplier<? extends Publisher<T>> call) {
+        return Flux.defer(() -> {
+            Observation observation = stage(stage, provider).start();
+            return Flux.<T>from(call.get())
+                    .doOnComplete(() -> stop(observation, "success"))
+                    .doOnError(e -> stop(observation.error(e), outcome(e)))
+                    .doOnCancel(() -> stop(observation, "cancelled"))
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    public void uploadedBytes(String provider, long bytes) {
+        Counter.builder("transcription.upload.bytes")
+                .description("Audio bytes sent to the provider")
+                .baseUnit("bytes")
+                .tag("provider", provider)
+                .register(meterRegistry)
+                .increment(bytes);
+    }
+
+    public void rateLimitRejected(String role) {
+        Counter.builder("transcription.rate.limit.rejections")
+                .description("Requests refused by the sliding window rate limit")
+                .tag("role", role)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Observation stage(String stage, String provider) {
+        return Observation.createNotStarted(STAGE_OBSERVATION, observationRegistry)
+                .contextualName(stage)
+                .lowCardinalityKeyValue("stage", stage)
+                .lowCardinalityKeyValue("provider", provider);
+    }
+
+    private static <T, E extends Exception> T observe(Observation observation, CheckedSupplier<T, E> call) throws E {
+        observation.start();
+        String outcome = "error";
+        // In scope, so blocking WebClient/RestClient calls inside pick this observation as parent
+        try (Observation.Scope scope = observation.openScope()) {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } catch (Exception e) {
+            observation.error(e);
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            stop(observation, outcome);
+        }
+    }
+
+    private static void stop(Observation observation, String outcome) {
+        observation.lowCardinalityKeyValue("outcome", outcome).stop();
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof ProviderBusyException) {
+            return "rejected";
+        }
+        return e instanceof CancellationException ? "cancelled" : "error";
+    }
+}
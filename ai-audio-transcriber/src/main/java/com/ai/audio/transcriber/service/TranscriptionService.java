@@ -1,404 +1,721 @@
 package com.ai.audio.transcriber.service;
 
-import com.ai.audio.transcriber.dto.FileApiResponse;
-import com.ai.audio.transcriber.dto.FileMetadataRequest;
-import com.ai.audio.transcriber.dto.GeminiRequest;
+import com.ai.audio.transcriber.dto.GeminiResponse;
+import com.ai.audio.transcriber.dto.GeminiTranscription;
+import com.ai.audio.transcriber.dto.TranscriptionDetail;
+import com.ai.audio.transcriber.dto.TranscriptionHistoryItem;
+import com.ai.audio.transcriber.dto.TranscriptionHistoryPage;
 import com.ai.audio.transcriber.dto.TranscriptionResult;
+import com.ai.audio.transcriber.dto.TranscriptionStreamEvent;
+import com.ai.audio.transcriber.model.AnalysisStatus;
+import com.ai.audio.transcriber.model.AuthenticatedUser;
 import com.ai.audio.transcriber.model.TranscriptionRecord;
+import com.ai.audio.transcriber.model.TranscriptionStage;
 import com.ai.audio.transcriber.model.User;
 import com.ai.audio.transcriber.repository.TranscriptionRepository;
 import com.ai.audio.transcriber.repository.UserRepository;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
-import org.springframework.ai.audio.transcription.AudioTranscriptionResponse;
-import org.springframework.ai.openai.OpenAiAudioTranscriptionModel;
-import org.springframework.ai.openai.OpenAiAudioTranscriptionOptions;
-import org.springframework.ai.openai.api.OpenAiAudioApi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.BodyInserters;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.time.LocalDateTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class TranscriptionService {
 
-    private static final int WINDOW_LIMIT = 4;
-    private static final long WINDOW_SECONDS = 24 * 60 * 60;
+    private static final Logger log = LoggerFactory.getLogger(TranscriptionService.class);
 
-    private final OpenAiAudioTranscriptionModel transcriptionModel;
+    // Also the provider tag of the stage timers
+    static final String MODEL_GEMINI = TranscriptionMetrics.PROVIDER_GEMINI;
+    static final String MODEL_OPENAI = TranscriptionMetrics.PROVIDER_OPENAI;
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    // Column length of TranscriptionRecord.title
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    private final SegmentedTranscriptionService segmentedTranscriptionService;
+    private final SilenceTrimmer silenceTrimmer;
+    private final AsyncAnalysisService asyncAnalysisService;
+    private final RateLimiter rateLimiter;
     private final TranscriptionAnalysisService analysisService;
     private final TranscriptionRepository transcriptionRepository;
     private final UserRepository userRepository;
-    private final WebClient webClient;
+    private final GeminiClient geminiClient;
+    private final ProviderBulkhead geminiBulkhead;
+    private final ProviderBulkhead whisperBulkhead;
+    private final ProviderCircuitBreaker geminiCircuitBreaker;
+    private final ProviderCircuitBreaker openAiCircuitBreaker;
+    private final TranscriptionMetrics metrics;
     private final ObjectMapper objectMapper; //this is for JSON parsing
 
-    @Value("${gemini.api.key}")
-    private String apiKey;
+    // OpenAI path: return the transcript as soon as it is saved and summarize in the background
+    @Value("${transcription.analysis.pipelined:false}")
+    private boolean pipelinedAnalysis;
+
+    // When the requested provider's circuit is open, use the other path instead of failing with 503
+    @Value("${transcription.failover.enabled:true}")
+    private boolean failoverEnabled;
 
     public TranscriptionService(
-            @Value("${spring.ai.openai.api-key}") String apiKey,
+            SegmentedTranscriptionService segmentedTranscriptionService,
+            SilenceTrimmer silenceTrimmer,
+            AsyncAnalysisService asyncAnalysisService,
+            RateLimiter rateLimiter,
             TranscriptionAnalysisService analysisService,
             TranscriptionRepository transcriptionRepository,
             UserRepository userRepository,
-            WebClient.Builder webClientBuilder,
+            GeminiClient geminiClient,
+            @Qualifier("geminiBulkhead") ProviderBulkhead geminiBulkhead,
+            @Qualifier("whisperBulkhead") ProviderBulkhead whisperBulkhead,
+            @Qualifier("geminiCircuitBreaker") ProviderCircuitBreaker geminiCircuitBreaker,
+            @Qualifier("openAiCircuitBreaker") ProviderCircuitBreaker openAiCircuitBreaker,
+            TranscriptionMetrics metrics,
             ObjectMapper objectMapper) {
-        this.webClient = webClientBuilder.build();
+        this.geminiClient = geminiClient;
+        this.geminiBulkhead = geminiBulkhead;
+        this.whisperBulkhead = whisperBulkhead;
+        this.geminiCircuitBreaker = geminiCircuitBreaker;
+        this.openAiCircuitBreaker = openAiCircuitBreaker;
+        this.metrics = metrics;
         this.objectMapper = objectMapper;
 
-        OpenAiAudioApi openAiAudioApi = new OpenAiAudioApi(apiKey);
-        this.transcriptionModel = new OpenAiAudioTranscriptionModel(openAiAudioApi);
-
+        this.segmentedTranscriptionService = segmentedTranscriptionService;
+        this.silenceTrimmer = silenceTrimmer;
+        this.asyncAnalysisService = asyncAnalysisService;
+        this.rateLimiter = rateLimiter;
         this.analysisService = analysisService;
         this.transcriptionRepository = transcriptionRepository;
         this.userRepository = userRepository;
     }
 
-    private User getCurrentAuthenticatedUser() {
+    User getCurrentAuthenticatedUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not authenticated.");
         }
+        // Token principals already carry id, email and role, no query needed
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.toUser();
+        }
         String userEmail = ((UserDetails) authentication.getPrincipal()).getUsername();
         return userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Authenticated user not found."));
     }
 
     public TranscriptionResult transcribeAndAnalyze(MultipartFile file, String model) throws IOException {
+        return metrics.observeRequest(providerModel(model), () -> transcribeAndAnalyzeObserved(file, model));
+    }
+
+    private TranscriptionResult transcribeAndAnalyzeObserved(MultipartFile file, String model) throws IOException {
         User currentUser = getCurrentAuthenticatedUser();
 
-        // 1. Rate Limit Check
-        checkSlidingWindowLimit(currentUser.getId());
+        // One read of the multipart part: the copy the providers read, and its hash
+        ReceivedUpload upload = receive(file, model);
+        try {
+            // 1. Known audio is answered from the stored result, without uploading it again
+            Optional<TranscriptionResult> cached = findCachedResult(currentUser, upload.contentHash(), model, upload.audio().fileName());
+            if (cached.isPresent()) {
+                return cached.get();
+            }
 
-        String transcriptionText;
-        String analysisResult;
+            // 2. Rate Limit Check
+            RateLimiter.Reservation reservation = checkSlidingWindowLimit(currentUser);
 
-        // 2. Logic Split
-        if ("gemini".equalsIgnoreCase(model)) {
-            // Gemini does both transcription and analysis in one go
-            String rawGeminiResponse = performGeminiTranscription(file);
+            try {
+                TranscriptionResult result = transcribeAndAnalyze(currentUser, upload.audio(), upload.contentHash(), model, UploadProgressListener.NONE);
+                rateLimiter.commit(reservation);
+                return result;
+            } catch (IOException | RuntimeException e) {
+                // Nothing was saved, so the attempt does not count against the limit
+                rateLimiter.release(reservation);
+                throw e;
+            }
+        } finally {
+            deleteTempFile(upload.file());
+        }
+    }
 
-            // Extract clean text from the JSON response
-            String cleanText = extractTextFromGeminiResponse(rawGeminiResponse);
+    /**
+     * Runs the transcription pipeline for an already resolved user.
+     * Used directly by the job executor, where the original request (and its security context) is gone.
+     */
+    TranscriptionResult transcribeAndAnalyze(User currentUser, AudioSource originalAudio, String contentHash, String model, UploadProgressListener progressListener) throws IOException {
+        // The content hash stays that of the original upload, trimming only changes what is sent
+        AudioSource audio = silenceTrimmer.trim(originalAudio);
+        String originalFileName = audio.fileName();
+        String providerModel = routeProvider(model);
+        String transcriptionText;
+        String analysisResult;
 
-            transcriptionText = cleanText;
-            analysisResult = cleanText; // Using the same text for both as requested
+        // 3. Logic Split
+        if (MODEL_GEMINI.equals(providerModel)) {
+            // Gemini does both transcription and analysis in one go, as separate fields
+            GeminiResponse geminiResponse = performGeminiTranscription(audio, contentHash, progressListener);
+            GeminiTranscription transcription = metrics.time("extract", TranscriptionMetrics.PROVIDER_GEMINI, () -> parseTranscription(geminiResponse.text()));
 
-            System.out.println("this is analysis result "+ analysisResult);
+            log.debug("Gemini analysis title={} summary={}", LogPreview.of(transcription.title()), LogPreview.of(transcription.summary()));
             // Save immediately and return
-            TranscriptionRecord savedRecord = saveTranscriptionRecord(currentUser, file.getOriginalFilename(), transcriptionText, analysisResult);
+            TranscriptionRecord savedRecord = saveGeminiTranscriptionRecord(currentUser, originalFileName, contentHash, transcription);
 
-            return new TranscriptionResult(
-                    savedRecord.getFullTranscription(),
-                    savedRecord.getAiAnalysis(),
-                    savedRecord.getId()
-            );
+            return TranscriptionResult.from(savedRecord);
 
         } else {
             // OpenAI Path: Transcribe first, then Analyze separately
-            transcriptionText = performTranscription(file);
+            transcriptionText = performTranscription(audio);
 
             if (transcriptionText == null || transcriptionText.isEmpty()) {
                 throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Transcription failed or returned empty result.");
             }
 
+            if (pipelinedAnalysis) {
+                // Persist the transcript right away and let the summary catch up in the background
+                TranscriptionRecord savedRecord = savePendingTranscriptionRecord(currentUser, originalFileName, contentHash, providerModel, transcriptionText);
+                asyncAnalysisService.schedule(savedRecord.getId(), transcriptionText);
+                return TranscriptionResult.from(savedRecord);
+            }
+
             // Explicit Analysis Step
-            analysisResult = analysisService.summarize(transcriptionText);
+            analysisResult = summarize(transcriptionText);
 
-            TranscriptionRecord savedRecord = saveTranscriptionRecord(currentUser, file.getOriginalFilename(), transcriptionText, analysisResult);
+            TranscriptionRecord savedRecord = saveTranscriptionRecord(currentUser, originalFileName, contentHash, providerModel, transcriptionText, analysisResult);
 
-            return new TranscriptionResult(
-                    savedRecord.getFullTranscription(),
-                    savedRecord.getAiAnalysis(),
-                    savedRecord.getId()
-            );
+            return TranscriptionResult.from(savedRecord);
         }
     }
 
-    public List<TranscriptionRecord> getHistory() {
+    /**
+     * Non-blocking variant of the Gemini path. Only the user lookup and rate limit check run on the
+     * calling thread; upload, state polling and generation are chained without blocking,
+     * and the JPA save is handed off to the bounded elastic scheduler.
+     * The received copy is deleted once the returned Mono terminates or is cancelled.
+     */
+    public Mono<TranscriptionResult> transcribeAndAnalyzeReactive(MultipartFile file) throws IOException {
         User currentUser = getCurrentAuthenticatedUser();
-        return transcriptionRepository.findByUserIdOrderByCreatedDateDesc(currentUser.getId());
+
+        ReceivedUpload upload = receive(file, MODEL_GEMINI);
+        Mono<TranscriptionResult> result;
+        try {
+            result = transcribeAndAnalyzeReactive(currentUser, upload.audio(), upload.contentHash());
+        } catch (IOException | RuntimeException e) {
+            deleteTempFile(upload.file());
+            throw e;
+        }
+        return result.doFinally(signal -> deleteTempFileLater(upload.file()));
     }
 
-    // --- Helper Methods ---
+    private Mono<TranscriptionResult> transcribeAndAnalyzeReactive(User currentUser, AudioSource audio, String contentHash) throws IOException {
+        Optional<TranscriptionResult> cached = findCachedResult(currentUser, contentHash, MODEL_GEMINI, audio.fileName());
+        if (cached.isPresent()) {
+            return Mono.just(cached.get());
+        }
 
-    private void checkSlidingWindowLimit(Long userId) {
-        LocalDateTime windowStart = LocalDateTime.now().minusSeconds(WINDOW_SECONDS);
-        List<TranscriptionRecord> recentCalls = transcriptionRepository.findByUserIdAndCreatedDateAfter(userId, windowStart);
-        if (recentCalls.size() >= WINDOW_LIMIT) {
-            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Sliding window limit reached.");
+        // An open Gemini circuit answers 503 (or fails over) before a rate limit slot is taken
+        String providerModel = routeProvider(MODEL_GEMINI);
+        RateLimiter.Reservation reservation = checkSlidingWindowLimit(currentUser);
+
+        if (!MODEL_GEMINI.equals(providerModel)) {
+            // Failover: the blocking OpenAI path on a worker thread instead. Once started it cannot be
+            // interrupted, so it settles the slot itself; a cancel only gives the slot back if it never started.
+            AtomicBoolean claimed = new AtomicBoolean();
+            return Mono.fromCallable(() -> {
+                        if (!claimed.compareAndSet(false, true)) {
+                            return null;
+                        }
+                        try {
+                            TranscriptionResult result = transcribeAndAnalyze(currentUser, audio, contentHash, MODEL_OPENAI, UploadProgressListener.NONE);
+                            rateLimiter.commit(reservation);
+                            return result;
+                        } catch (IOException | RuntimeException e) {
+                            rateLimiter.release(reservation);
+                            throw e;
+                        }
+                    })
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnCancel(() -> {
+                        if (claimed.compareAndSet(false, true)) {
+                            releaseLater(reservation);
+                        }
+                    });
         }
-    }
 
-    private String performGeminiTranscription(MultipartFile file) {
-        Path tempFile = null;
+        AudioSource trimmed;
         try {
-            String originalFileName = file.getOriginalFilename();
-            String extension = (originalFileName != null && originalFileName.contains("."))
-                    ? originalFileName.substring(originalFileName.lastIndexOf("."))
-                    : ".tmp";
-            tempFile = Files.createTempFile("upload-" + UUID.randomUUID(), extension);
-            Files.copy(file.getInputStream(), tempFile, StandardCopyOption.REPLACE_EXISTING);
-
-            return processAudioFile(tempFile);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Gemini processing failed", e);
-        } finally {
-            if (tempFile != null) {
-                try { Files.deleteIfExists(tempFile); } catch (IOException ignored) { }
-            }
+            trimmed = silenceTrimmer.trim(audio);
+        } catch (IOException | RuntimeException e) {
+            rateLimiter.release(reservation);
+            throw e;
         }
+
+        AtomicBoolean persisted = new AtomicBoolean();
+        return geminiCircuitBreaker.mono(() -> geminiBulkhead.mono(() -> geminiClient.transcribe(trimmed, contentHash, UploadProgressListener.NONE)
+                        // Completing without a body would otherwise commit the slot and answer with nothing
+                        .switchIfEmpty(Mono.error(TranscriptionService::noGeminiAnswer))))
+                .map(geminiResponse -> metrics.time("extract", TranscriptionMetrics.PROVIDER_GEMINI, () -> parseTranscription(geminiResponse.text())))
+                .publishOn(Schedulers.boundedElastic())
+                .map(transcription -> {
+                    TranscriptionRecord savedRecord = saveGeminiTranscriptionRecord(currentUser, audio.fileName(), contentHash, transcription);
+                    persisted.set(true);
+                    return savedRecord;
+                })
+                .map(TranscriptionResult::from)
+                .doOnSuccess(result -> rateLimiter.commit(reservation))
+                .doOnError(e -> releaseLater(reservation))
+                // Client gone or spring.mvc.async.request-timeout expired: the slot only counts if the record was saved
+                .doOnCancel(() -> {
+                    if (persisted.get()) {
+                        rateLimiter.commit(reservation);
+                    } else {
+                        releaseLater(reservation);
+                    }
+                })
+                .onErrorMap(e -> !(e instanceof ResponseStatusException),
+                        e -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Gemini processing failed", e));
     }
 
-    // New Helper to parse Gemini JSON
-    private String extractTextFromGeminiResponse(String jsonResponse) {
+    /**
+     * Streaming variant for the SSE endpoint. Stage events go out as the pipeline advances, then the
+     * generated text is pushed as it arrives: Gemini's combined output via streamGenerateContent, or
+     * on the OpenAI path the finished transcript followed by the analysis tokens. The record is
+     * saved once the stream is complete and sent as the final {@code result} event.
+     * Cache hits and the rate limit are handled before the stream opens, so a 429 is still a 429.
+     */
+    public Flux<ServerSentEvent<TranscriptionStreamEvent>> transcribeAndAnalyzeStream(MultipartFile file, String model) throws IOException {
+        User currentUser = getCurrentAuthenticatedUser();
+
+        ReceivedUpload upload = receive(file, model);
+        Flux<ServerSentEvent<TranscriptionStreamEvent>> events;
         try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-            // Navigate: candidates[0] -> content -> parts[0] -> text
-            if (root.has("candidates") && root.get("candidates").isArray() && !root.get("candidates").isEmpty()) {
-                JsonNode candidate = root.get("candidates").get(0);
-                if (candidate.has("content") && candidate.get("content").has("parts")) {
-                    JsonNode parts = candidate.get("content").get("parts");
-                    if (parts.isArray() && !parts.isEmpty()) {
-                        return parts.get(0).get("text").asText();
-                    }
-                }
-            }
-            return "No text content found in response.";
-        } catch (Exception e) {
-            System.err.println("Failed to parse Gemini JSON: " + jsonResponse);
-            return "Error parsing AI response.";
+            events = transcribeAndAnalyzeStream(currentUser, upload.audio(), upload.contentHash(), model);
+        } catch (IOException | RuntimeException e) {
+            deleteTempFile(upload.file());
+            throw e;
         }
+        return events.doFinally(signal -> deleteTempFileLater(upload.file()));
     }
 
-    private String performTranscription(MultipartFile file) throws IOException {
-        File tempFile = File.createTempFile("audio", ".wav");
-        file.transferTo(tempFile);
+    private Flux<ServerSentEvent<TranscriptionStreamEvent>> transcribeAndAnalyzeStream(User currentUser, AudioSource originalAudio, String contentHash, String model) throws IOException {
+        Optional<TranscriptionResult> cached = findCachedResult(currentUser, contentHash, model, originalAudio.fileName());
+        if (cached.isPresent()) {
+            return Flux.just(TranscriptionStreamEvent.result(cached.get()));
+        }
+
+        // Open circuits are decided before the stream opens too, so the client gets a real 503
+        String providerModel = routeProvider(model);
+        RateLimiter.Reservation reservation = checkSlidingWindowLimit(currentUser);
+
+        AudioSource audio;
         try {
-            OpenAiAudioTranscriptionOptions options = OpenAiAudioTranscriptionOptions.builder()
-                    .withResponseFormat(OpenAiAudioApi.TranscriptResponseFormat.TEXT)
-                    .withLanguage("en")
-                    .withTemperature(0f)
-                    .build();
-
-            FileSystemResource audioResource = new FileSystemResource(tempFile);
-            AudioTranscriptionPrompt prompt = new AudioTranscriptionPrompt(audioResource, options);
-            AudioTranscriptionResponse response = transcriptionModel.call(prompt);
-            return response.getResult().getOutput();
-        } finally {
-            tempFile.delete();
+            audio = silenceTrimmer.trim(originalAudio);
+        } catch (IOException | RuntimeException e) {
+            rateLimiter.release(reservation);
+            throw e;
         }
+        // The rate limit slot is committed once a record is saved, and given back if the stream ends before that
+        AtomicBoolean persisted = new AtomicBoolean();
+        Flux<ServerSentEvent<TranscriptionStreamEvent>> pipeline = MODEL_GEMINI.equals(providerModel)
+                ? streamGemini(currentUser, audio, contentHash, reservation, persisted)
+                : streamOpenAi(currentUser, audio, contentHash, reservation, persisted);
+
+        return Flux.concat(
+                        Flux.just(TranscriptionStreamEvent.stage(TranscriptionStage.RECEIVED),
+                                TranscriptionStreamEvent.stage(TranscriptionStage.TRANSCRIBING)),
+                        pipeline)
+                .doOnCancel(() -> {
+                    if (!persisted.get()) {
+                        releaseLater(reservation);
+                    }
+                })
+                // Headers are long gone once events flow, so failures become an error event
+                .onErrorResume(e -> {
+                    log.error("Streaming transcription of {} failed", originalAudio.fileName(), e);
+                    if (!persisted.get()) {
+                        releaseLater(reservation);
+                    }
+                    String reason = e instanceof ResponseStatusException statusException ? statusException.getReason() : "Transcription failed.";
+                    return Flux.just(TranscriptionStreamEvent.error(reason));
+                });
     }
 
-    private TranscriptionRecord saveTranscriptionRecord(User user, String fileName, String transcriptionText, String analysisResult) {
-        TranscriptionRecord record = new TranscriptionRecord();
-        record.setUser(user);
-        record.setOriginalFileName(fileName);
-        record.setFullTranscription(transcriptionText);
-        record.setAiAnalysis(analysisResult);
-        return transcriptionRepository.save(record);
+    private Flux<ServerSentEvent<TranscriptionStreamEvent>> streamGemini(User currentUser, AudioSource audio, String contentHash, RateLimiter.Reservation reservation, AtomicBoolean persisted) {
+        return Flux.defer(() -> {
+            // The answer is the JSON object of the response schema; only its transcript goes out as tokens
+            TranscriptFieldStream output = new TranscriptFieldStream();
+            return Flux.concat(
+                    geminiCircuitBreaker.flux(() -> geminiBulkhead.flux(() -> geminiClient.transcribeStream(audio, contentHash, UploadProgressListener.NONE)))
+                            .map(output::append)
+                            .filter(text -> !text.isEmpty())
+                            .map(TranscriptionStreamEvent::token),
+                    Flux.just(TranscriptionStreamEvent.stage(TranscriptionStage.SAVING)),
+                    // Title, summary and key points arrive after the transcript, so they are read from the whole object
+                    Mono.fromCallable(() -> saveGeminiTranscriptionRecord(currentUser, audio.fileName(), contentHash,
+                                    metrics.time("extract", TranscriptionMetrics.PROVIDER_GEMINI, () -> parseTranscription(output.json()))))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .doOnNext(savedRecord -> {
+                                persisted.set(true);
+                                rateLimiter.commit(reservation);
+                            })
+                            .map(savedRecord -> TranscriptionStreamEvent.result(TranscriptionResult.from(savedRecord))));
+        });
     }
 
-    public String processAudioFile(Path path) throws IOException {
-        long numBytes = Files.size(path);
-        String mimeType = Files.probeContentType(path);
-        if (mimeType == null) mimeType = "audio/mpeg";
+    private Flux<ServerSentEvent<TranscriptionStreamEvent>> streamOpenAi(User currentUser, AudioSource audio, String contentHash, RateLimiter.Reservation reservation, AtomicBoolean persisted) {
+        // Whisper has no streaming output, so the transcript arrives in one piece on a worker thread.
+        // It is saved straight away (analysis PENDING), then the analysis tokens are streamed and stored.
+        return Mono.fromCallable(() -> {
+                    String transcriptionText = performTranscription(audio);
+                    if (transcriptionText == null || transcriptionText.isEmpty()) {
+                        throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Transcription failed or returned empty result.");
+                    }
+                    return savePendingTranscriptionRecord(currentUser, audio.fileName(), contentHash, MODEL_OPENAI, transcriptionText);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(savedRecord -> {
+                    persisted.set(true);
+                    rateLimiter.commit(reservation);
+                })
+                .flatMapMany(savedRecord -> {
+                    StringBuilder analysis = new StringBuilder();
+                    return Flux.concat(
+                            Flux.just(TranscriptionStreamEvent.transcript(savedRecord.getFullTranscription()),
+                                    TranscriptionStreamEvent.stage(TranscriptionStage.ANALYZING)),
+                            openAiCircuitBreaker.flux(() -> analysisService.summarizeStream(savedRecord.getFullTranscription()))
+                                    .doOnNext(analysis::append)
+                                    // Client went away mid-analysis: finish it in the background instead. The cancel comes in
+                                    // on the event loop and a full analysis queue marks the record FAILED right away, so hand it off
+                                    .doOnCancel(() -> Schedulers.boundedElastic().schedule(
+                                            () -> asyncAnalysisService.schedule(savedRecord.getId(), savedRecord.getFullTranscription())))
+                                    // The error event only goes out once the record says FAILED
+                                    .onErrorResume(e -> markAnalysisFailed(savedRecord.getId()).then(Mono.error(e)))
+                                    .map(TranscriptionStreamEvent::token),
+                            Flux.just(TranscriptionStreamEvent.stage(TranscriptionStage.SAVING)),
+                            Mono.fromCallable(() -> {
+                                        transcriptionRepository.updateAnalysis(savedRecord.getId(), analysis.toString(), AnalysisStatus.COMPLETED);
+                                        return new TranscriptionResult(savedRecord.getFullTranscription(), analysis.toString(),
+                                                savedRecord.getId(), AnalysisStatus.COMPLETED);
+                                    })
+                                    .subscribeOn(Schedulers.boundedElastic())
+                                    .map(TranscriptionStreamEvent::result));
+                });
+    }
 
-        System.out.println("1. Detected file: " + mimeType + " , size: " + numBytes);
+    // Tokens arrive on an event loop thread, so the JPA update is handed off
+    private Mono<Void> markAnalysisFailed(Long recordId) {
+        return Mono.<Void>fromRunnable(() -> transcriptionRepository.updateAnalysis(recordId, null, AnalysisStatus.FAILED))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * One page of the caller's history, newest first. Rows are preview projections; the full text
+     * is fetched per record through {@link #getRecord(Long)}.
+     */
+    public TranscriptionHistoryPage getHistory(String cursor, int limit) {
+        User currentUser = getCurrentAuthenticatedUser();
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        // One extra row tells us whether there is a next page without a count query
+        Limit fetchLimit = Limit.of(pageSize + 1);
 
-        // Step 1: Init Upload
-        String uploadUrl = initiatedUpload(mimeType, numBytes, "MyAudioFile");
-        System.out.println("2. Session url obtained.");
+        List<TranscriptionHistoryItem> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transcriptionRepository.findHistory(currentUser.getId(), fetchLimit);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            rows = transcriptionRepository.findHistoryAfter(currentUser.getId(), after.createdDate(), after.id(), fetchLimit);
+        }
 
-        // Step 2: Upload Bytes
-        String fileUri = uploadBytes(uploadUrl, path, numBytes);
-        System.out.println("3. File uploaded uri: " + fileUri);
+        if (rows.size() <= pageSize) {
+            return new TranscriptionHistoryPage(rows, null);
+        }
+        List<TranscriptionHistoryItem> page = rows.subList(0, pageSize);
+        TranscriptionHistoryItem last = page.get(pageSize - 1);
+        return new TranscriptionHistoryPage(page, new HistoryCursor(last.createdDate(), last.id()).encode());
+    }
 
-        // Step 3 (NEW): Wait for File to be ACTIVE
-        waitForFileActive(fileUri);
+    /**
+     * Full text of one of the caller's records, also used to poll a PENDING analysis.
+     * Other users' records are reported as missing.
+     */
+    public TranscriptionDetail getRecord(Long recordId) {
+        User currentUser = getCurrentAuthenticatedUser();
+        return transcriptionRepository.findById(recordId)
+                .filter(record -> record.getUser().getId().equals(currentUser.getId()))
+                .map(TranscriptionDetail::from)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Transcription not found."));
+    }
 
-        // Step 4: Generate Content
-        String response = generateContent(fileUri, mimeType);
-        System.out.println("4. Gemini response: " + response);
+    // --- Helper Methods ---
 
-        return response;
+    /**
+     * Looks up a stored result for identical audio processed by the same provider.
+     * <p>
+     * Only handing back the caller's own finished (or still pending) record is free of the rate limit.
+     * Everything else takes a slot like a new request: a FAILED analysis is summarized again, and
+     * a hit on another user's record adds a copy to the caller's history (which is what the limit
+     * counts after a restart), with its own summarize call if the original has no analysis yet.
+     */
+    Optional<TranscriptionResult> findCachedResult(User currentUser, String contentHash, String model, String originalFileName) {
+        String providerModel = providerModel(model);
+        return transcriptionRepository.findFirstByContentHashAndModelOrderByCreatedDateDesc(contentHash, providerModel)
+                .map(cachedRecord -> {
+                    boolean own = cachedRecord.getUser().getId().equals(currentUser.getId());
+                    if (own && cachedRecord.getAnalysisStatus() != AnalysisStatus.FAILED) {
+                        return TranscriptionResult.from(cachedRecord);
+                    }
+                    RateLimiter.Reservation reservation = checkSlidingWindowLimit(currentUser);
+                    try {
+                        TranscriptionResult result = own
+                                ? retryAnalysis(cachedRecord)
+                                : copyCachedRecord(currentUser, cachedRecord, originalFileName);
+                        rateLimiter.commit(reservation);
+                        return result;
+                    } catch (RuntimeException e) {
+                        rateLimiter.release(reservation);
+                        throw e;
+                    }
+                });
+    }
+
+    // A failed background analysis gets another go; a pending one is still running
+    private TranscriptionResult retryAnalysis(TranscriptionRecord record) {
+        transcriptionRepository.updateAnalysis(record.getId(), null, AnalysisStatus.PENDING);
+        asyncAnalysisService.schedule(record.getId(), record.getFullTranscription());
+        return new TranscriptionResult(record.getFullTranscription(), null, record.getId(), AnalysisStatus.PENDING);
+    }
+
+    // Another user's result is copied into the caller's history so it shows up there, no provider upload
+    private TranscriptionResult copyCachedRecord(User currentUser, TranscriptionRecord cachedRecord, String originalFileName) {
+        if (cachedRecord.getAnalysisStatus() == AnalysisStatus.COMPLETED) {
+            TranscriptionRecord copy = newTranscriptionRecord(currentUser, originalFileName, cachedRecord.getContentHash(), cachedRecord.getModel(),
+                    cachedRecord.getFullTranscription());
+            copy.setAiAnalysis(cachedRecord.getAiAnalysis());
+            copy.setTitle(cachedRecord.getTitle());
+            copy.setKeyPoints(List.copyOf(cachedRecord.getKeyPoints()));
+            return TranscriptionResult.from(save(copy));
+        }
+        // The other record's analysis is not there (yet), so the copy gets its own
+        TranscriptionRecord ownRecord = savePendingTranscriptionRecord(currentUser, originalFileName, cachedRecord.getContentHash(), cachedRecord.getModel(),
+                cachedRecord.getFullTranscription());
+        asyncAnalysisService.schedule(ownRecord.getId(), ownRecord.getFullTranscription());
+        return TranscriptionResult.from(ownRecord);
+    }
+
+    // Anything that is not Gemini goes down the OpenAI path
+    static String providerModel(String model) {
+        return MODEL_GEMINI.equalsIgnoreCase(model) ? MODEL_GEMINI : MODEL_OPENAI;
     }
 
     /**
-     * Polls the Google Files API until the file state is ACTIVE.
-     * Throws exception if it fails or times out.
+     * Provider path to actually use. Normally the requested one; while its circuit is open the
+     * request goes to the other path (Gemini <-> Whisper + summarize), or is refused with 503 and
+     * Retry-After when failover is off or both circuits are open. The record is stored under the
+     * provider that did the work.
      */
-    private void waitForFileActive(String fileUri) {
-        System.out.println("Checking file state for: " + fileUri);
+    String routeProvider(String model) {
+        String preferred = providerModel(model);
+        ProviderCircuitBreaker preferredBreaker = MODEL_GEMINI.equals(preferred) ? geminiCircuitBreaker : openAiCircuitBreaker;
+        if (preferredBreaker.isCallPermitted()) {
+            return preferred;
+        }
+        String fallback = MODEL_GEMINI.equals(preferred) ? MODEL_OPENAI : MODEL_GEMINI;
+        ProviderCircuitBreaker fallbackBreaker = MODEL_GEMINI.equals(fallback) ? geminiCircuitBreaker : openAiCircuitBreaker;
+        if (failoverEnabled && fallbackBreaker.isCallPermitted()) {
+            log.info("Circuit {} is open, routing to {}", preferredBreaker.name(), fallbackBreaker.name());
+            return fallback;
+        }
+        throw preferredBreaker.notPermitted();
+    }
 
-        // The fileUri is like https://.../files/abc12345
-        // We can GET that URI directly with the API Key to check status
-        String checkUrl = fileUri + "?key=" + apiKey;
+    RateLimiter.Reservation checkSlidingWindowLimit(User user) {
+        return rateLimiter.reserve(user.getId(), user.getRole())
+                .orElseThrow(() -> {
+                    metrics.rateLimitRejected(user.getRole().name());
+                    return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Sliding window limit reached.");
+                });
+    }
 
-        int maxRetries = 10;
-        for (int i = 0; i < maxRetries; i++) {
-            try {
-                String state = webClient.get()
-                        .uri(checkUrl)
-                        .retrieve()
-                        .bodyToMono(JsonNode.class)
-                        .map(json -> json.path("state").asText())
-                        .block();
+    /**
+     * Copies the multipart upload into a temp file and hashes it on the same read (DigestInputStream),
+     * so the content hash costs no pass of its own. Everything after this reads the copy: it is a file
+     * the resumable upload can seek in, and it outlives the request for the job API.
+     * The original extension is kept so that content type probing still works.
+     * The caller deletes the file.
+     */
+    ReceivedUpload receive(MultipartFile file, String model) throws IOException {
+        return metrics.time("receive", providerModel(model), () -> spool(file));
+    }
+
+    private ReceivedUpload spool(MultipartFile file) throws IOException {
+        String originalFileName = file.getOriginalFilename();
+        String extension = (originalFileName != null && originalFileName.contains("."))
+                ? originalFileName.substring(originalFileName.lastIndexOf("."))
+                : ".tmp";
+        Path tempFile = Files.createTempFile("upload-" + UUID.randomUUID(), extension);
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return new ReceivedUpload(AudioSource.of(file, tempFile), HexFormat.of().formatHex(digest.digest()), tempFile);
+        } catch (IOException | RuntimeException e) {
+            deleteTempFile(tempFile);
+            throw e;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Job API: the slot outlives the request and is settled by the worker
+    void commitRateLimit(RateLimiter.Reservation reservation) {
+        rateLimiter.commit(reservation);
+    }
 
-                System.out.println("File State: " + state);
+    void releaseRateLimit(RateLimiter.Reservation reservation) {
+        rateLimiter.release(reservation);
+    }
 
-                if ("ACTIVE".equals(state)) {
-                    return; // Ready to go!
-                } else if ("FAILED".equals(state)) {
-                    throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Google failed to process the audio file.");
-                }
+    void deleteTempFile(Path tempFile) {
+        if (tempFile != null) {
+            try { Files.deleteIfExists(tempFile); } catch (IOException ignored) { }
+        }
+    }
 
-                // Wait 2 seconds before retry
-                Thread.sleep(2000);
+    /**
+     * Gives a slot back from an error or cancel signal of a reactive pipeline. Those arrive on event loop
+     * threads, and the JDBC store releases with an UPDATE, so the release runs on the bounded elastic scheduler.
+     */
+    private void releaseLater(RateLimiter.Reservation reservation) {
+        Schedulers.boundedElastic().schedule(() -> rateLimiter.release(reservation));
+    }
+
+    // Reactive paths finish on an event loop thread, so the file system call is handed off
+    private void deleteTempFileLater(Path tempFile) {
+        Schedulers.boundedElastic().schedule(() -> deleteTempFile(tempFile));
+    }
 
+    private GeminiResponse performGeminiTranscription(AudioSource audio, String contentHash, UploadProgressListener progressListener) {
+        // A full bulkhead fails fast with 503 + Retry-After before anything is uploaded
+        return geminiCircuitBreaker.call(() -> geminiBulkhead.call(() -> {
+            Optional<GeminiResponse> response;
+            try {
+                response = geminiClient.transcribe(audio, contentHash, progressListener).blockOptional();
             } catch (Exception e) {
-                System.err.println("Error checking file state: " + e.getMessage());
-                // Don't break immediately, give it a chance
+                log.error("Gemini transcription of {} failed", audio.fileName(), e);
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Gemini processing failed", e);
             }
+            return response.orElseThrow(TranscriptionService::noGeminiAnswer);
+        }));
+    }
+
+    /**
+     * Reads Gemini's structured answer (JSON text in the response parts). An answer that does not
+     * follow the schema or has no transcript fails the request instead of being stored.
+     */
+    private GeminiTranscription parseTranscription(String json) {
+        GeminiTranscription transcription;
+        try {
+            transcription = objectMapper.readValue(json, GeminiTranscription.class);
+        } catch (JsonProcessingException e) {
+            log.atWarn().setMessage("Gemini answer is not the expected JSON")
+                    .addKeyValue("chars", json.length())
+                    .addKeyValue("preview", () -> LogPreview.of(json).toString())
+                    .log();
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Gemini returned an unreadable answer.", e);
         }
-        throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "File processing timed out.");
-    }
-
-//    public String processAudioFile(Path path) throws IOException {
-//        long numBytes = Files.size(path);
-//        String mimeType = Files.probeContentType(path);
-//        if (mimeType == null) mimeType = "audio/mpeg";
-//
-//        System.out.println("1. Detected file: " + mimeType + " , size: " + numBytes);
-//
-//        String uploadUrl = initiatedUpload(mimeType, numBytes, "MyAudioFile");
-//        System.out.println("2. Session url obtained: " + uploadUrl);
-//
-//        String fileUri = uploadBytes(uploadUrl, path, numBytes);
-//        System.out.println("3. File uploaded uri: " + fileUri);
-//
-//        String response = generateContent(fileUri, mimeType);
-//        System.out.println("4. Gemini response: " + response);
-//
-//        return response;
-//    }
-
-//    private String generateContent(String fileUri, String mimeType) {
-//        // Use gemini-1.5-flash or 1.5-pro (2.5-flash is not a standard public endpoint yet, reverting to 1.5 for safety)
-//        String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-1.5-flash:generateContent?key=" + apiKey;
-//
-//        // Updated prompt to match your dual-purpose need
-//        var textPart = new GeminiRequest.TextPart("Transcribe this audio clip and provide a brief summary of the content.");
-//        var filePart = new GeminiRequest.FileDataPart(new GeminiRequest.FileData(mimeType, fileUri));
-//
-//        var content = new GeminiRequest.Content(List.of(textPart, filePart));
-//        var request = new GeminiRequest(List.of(content));
-//
-//        return webClient.post()
-//                .uri(url)
-//                .contentType(MediaType.APPLICATION_JSON)
-//                .bodyValue(request)
-//                .retrieve()
-//                .bodyToMono(String.class) // Returns raw JSON
-//                .block();
-//    }
-
-
-    private String generateContent(String fileUri, String mimeType) {
-        String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent?key=" + apiKey;
-
-        var textPart = new GeminiRequest.TextPart("Transcribe this audio clip and provide a brief summary of the content.");
-        var filePart = new GeminiRequest.FileDataPart(new GeminiRequest.FileData(mimeType, fileUri));
-        var content = new GeminiRequest.Content(List.of(textPart, filePart));
-        var request = new GeminiRequest(List.of(content));
-
-        return webClient.post()
-                .uri(url)
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(request)
-                .retrieve()
-                .onStatus(status -> status.is4xxClientError(), response -> {
-                    return response.bodyToMono(String.class)
-                            .flatMap(body -> {
-                                System.err.println("Gemini Generate Error Body: " + body);
-                                return Mono.error(new ResponseStatusException(response.statusCode(), body));
-                            });
-                })
-                .bodyToMono(String.class)
-                .block();
-    }
-    private String uploadBytes(String uploadUrl, Path path, long numBytes) {
-        System.out.println("DEBUG: Uploading bytes to: " + uploadUrl);
-
-        return webClient.post()
-                .uri(uploadUrl)
-                .header("Content-Length", String.valueOf(numBytes))
-                .header("X-Goog-Upload-Offset", "0")
-                // CRITICAL FIX: Changed from "finalize" to "upload, finalize"
-                .header("X-Goog-Upload-Command", "upload, finalize")
-                .body(BodyInserters.fromResource(new FileSystemResource(path)))
-                .retrieve()
-                .onStatus(status -> status.is4xxClientError(), response -> {
-                    // This helper will print the actual error body from Google if it fails again
-                    return response.bodyToMono(String.class)
-                            .flatMap(body -> {
-                                System.err.println("Google Upload Error Body: " + body);
-                                return Mono.error(new ResponseStatusException(response.statusCode(), "Upload failed: " + body));
-                            });
-                })
-                .bodyToMono(FileApiResponse.class)
-                .map(response -> response.file().uri())
-                .block();
-    }
-//    private String uploadBytes(String uploadUrl, Path path, long numBytes) {
-//        return webClient.post()
-//                .uri(uploadUrl)
-//                .header("Content-Length", String.valueOf(numBytes))
-//                .header("X-Goog-Upload-Offset", "0") // FIXED: Removed space " 0" -> "0"
-//                .header("X-Goog-Upload-Command", "finalize")
-//                .body(BodyInserters.fromResource(new FileSystemResource(path)))
-//                .retrieve()
-//                .bodyToMono(FileApiResponse.class)
-//                .map(response -> response.file().uri())
-//                .block();
-//    }
-
-    private String initiatedUpload(String mimeType, long numBytes, String displayName) {
-        String baseUrl = "https://generativelanguage.googleapis.com/upload/v1beta/files";
-
-        return webClient.post()
-                .uri(baseUrl)
-                .header("x-goog-api-key", apiKey)
-                .header("X-Goog-Upload-Protocol", "resumable")
-                .header("X-Goog-Upload-Command", "start")
-                // FIXED: Changed Content_Length to Content-Length
-                .header("X-Goog-Upload-Header-Content-Length", String.valueOf(numBytes))
-                .header("X-Goog-Upload-Header-Content-Type", mimeType)
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(new FileMetadataRequest(new FileMetadataRequest.FileWrapper(displayName)))
-                .retrieve()
-                .toBodilessEntity()
-                .map(responseEntity -> responseEntity.getHeaders().getFirst("x-goog-upload-url"))
-                .block();
-    }
-}
\ No newline at end of file
+        if (transcription == null || transcription.transcript() == null || transcription.transcript().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Transcription failed or returned empty result.");
+        }
+        return transcription;
+    }
+
+    private String performTranscription(AudioSource audio) throws IOException {
+        // Long WAV recordings are split and transcribed in parallel, everything else in one call.
+        // The bulkhead counts whole transcriptions; the segment executor already caps the segments.
+        return openAiCircuitBreaker.call(() -> whisperBulkhead.call(() -> segmentedTranscriptionService.transcribe(audio)));
+    }
+
+    private String summarize(String transcriptionText) {
+        return openAiCircuitBreaker.call(() -> analysisService.summarize(transcriptionText));
+    }
+
+    private TranscriptionRecord saveTranscriptionRecord(User user, String fileName, String contentHash, String model, String transcriptionText, String analysisResult) {
+        TranscriptionRecord record = newTranscriptionRecord(user, fileName, contentHash, model, transcriptionText);
+        record.setAiAnalysis(analysisResult);
+        return save(record);
+    }
+
+    // The transcript is stored once; the summary goes to aiAnalysis, next to title and key points
+    private TranscriptionRecord saveGeminiTranscriptionRecord(User user, String fileName, String contentHash, GeminiTranscription transcription) {
+        TranscriptionRecord record = newTranscriptionRecord(user, fileName, contentHash, MODEL_GEMINI, transcription.transcript());
+        record.setAiAnalysis(transcription.summary());
+        record.setTitle(truncate(transcription.title(), MAX_TITLE_LENGTH));
+        record.setKeyPoints(transcription.keyPoints());
+        return save(record);
+    }
+
+    // Transcript only; the analysis is written later by AsyncAnalysisService or the stream
+    private TranscriptionRecord savePendingTranscriptionRecord(User user, String fileName, String contentHash, String model, String transcriptionText) {
+        TranscriptionRecord record = newTranscriptionRecord(user, fileName, contentHash, model, transcriptionText);
+        record.setAnalysisStatus(AnalysisStatus.PENDING);
+        return save(record);
+    }
+
+    private static TranscriptionRecord newTranscriptionRecord(User user, String fileName, String contentHash, String model, String transcriptionText) {
+        TranscriptionRecord record = new TranscriptionRecord();
+        record.setUser(user);
+        record.setOriginalFileName(fileName);
+        record.setContentHash(contentHash);
+        record.setModel(model);
+        record.setFullTranscription(transcriptionText);
+        return record;
+    }
+
+    private TranscriptionRecord save(TranscriptionRecord record) {
+        return metrics.time("save", record.getModel(), () -> transcriptionRepository.save(record));
+    }
+
+    private static String truncate(String text, int maxLength) {
+        return text != null && text.length() > maxLength ? text.substring(0, maxLength) : text;
+    }
+
+    public String processAudioFile(Path path) throws IOException {
+        GeminiResponse response = geminiClient.transcribe(AudioSource.of(path, path.getFileName().toString()))
+                .blockOptional()
+                .orElseThrow(TranscriptionService::noGeminiAnswer);
+        return parseTranscription(response.text()).transcript();
+    }
+
+    // The Gemini call completed without a response body
+    private static ResponseStatusException noGeminiAnswer() {
+        return new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Gemini returned no answer.");
+    }
+}
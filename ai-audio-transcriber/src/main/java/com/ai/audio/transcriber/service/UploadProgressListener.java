@@ -0,0 +1,12 @@
+package com.ai.audio.transcriber.service;
+
+/**
+ * Callback for upload progress, invoked after every chunk the server has committed.
+ */
+@FunctionalInterface
+public interface UploadProgressListener {
+
+    UploadProgressListener NONE = (uploadedBytes, totalBytes) -> { };
+
+    void onProgress(long uploadedBytes, long totalBytes);
+}
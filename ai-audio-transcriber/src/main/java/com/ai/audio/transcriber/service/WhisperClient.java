@@ -0,0 +1,63 @@
+package com.ai.audio.transcriber.service;
+
+import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
+import org.springframework.ai.audio.transcription.AudioTranscriptionResponse;
+import org.springframework.ai.openai.OpenAiAudioTranscriptionModel;
+import org.springframework.ai.openai.OpenAiAudioTranscriptionOptions;
+import org.springframework.ai.openai.api.OpenAiAudioApi;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.client.ReactorNettyClientRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Blocking call to the OpenAI whisper-1 transcription endpoint.
+ */
+@Service
+public class WhisperClient {
+
+    private final OpenAiAudioTranscriptionModel transcriptionModel;
+    private final TranscriptionMetrics metrics;
+
+    public WhisperClient(@Value("${spring.ai.openai.api-key}") String apiKey,
+                         @Value("${spring.ai.openai.audio.transcription.base-url:https://api.openai.com}") String baseUrl,
+                         RestClient.Builder restClientBuilder,
+                         @Qualifier("openAiHttpClient") HttpClient openAiHttpClient,
+                         @Value("${openai.http.timeout.transcribe:5m}") Duration transcribeTimeout,
+                         TranscriptionMetrics metrics) {
+        this.metrics = metrics;
+
+        // OpenAI pool from WebClientConfig; whisper needs far longer than chat to answer on long recordings
+        ReactorNettyClientRequestFactory requestFactory = new ReactorNettyClientRequestFactory(openAiHttpClient);
+        requestFactory.setReadTimeout(transcribeTimeout);
+
+        OpenAiAudioApi openAiAudioApi = new OpenAiAudioApi(baseUrl, apiKey,
+                restClientBuilder.requestFactory(requestFactory), RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER);
+        this.transcriptionModel = new OpenAiAudioTranscriptionModel(openAiAudioApi);
+    }
+
+    public String transcribe(Resource audio) {
+        OpenAiAudioTranscriptionOptions options = OpenAiAudioTranscriptionOptions.builder()
+                .withResponseFormat(OpenAiAudioApi.TranscriptResponseFormat.TEXT)
+                .withLanguage("en")
+                .withTemperature(0f)
+                .build();
+
+        AudioTranscriptionPrompt prompt = new AudioTranscriptionPrompt(audio, options);
+        // One timing per Whisper call, i.e. per segment for split recordings
+        AudioTranscriptionResponse response = metrics.time("whisper", TranscriptionMetrics.PROVIDER_OPENAI, () -> transcriptionModel.call(prompt));
+        try {
+            metrics.uploadedBytes(TranscriptionMetrics.PROVIDER_OPENAI, audio.contentLength());
+        } catch (IOException ignored) {
+            // Size unknown, nothing to count
+        }
+        return response.getResult().getOutput();
+    }
+}
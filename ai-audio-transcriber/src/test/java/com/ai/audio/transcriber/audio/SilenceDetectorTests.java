@@ -0,0 +1,87 @@
+package com.ai.audio.transcriber.audio;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SilenceDetectorTests {
+
+    private static final int SAMPLE_RATE = 16_000;
+    private static final long BYTES_PER_SECOND = SAMPLE_RATE * 2;
+
+    private final SilenceDetector detector = new SilenceDetector(Duration.ofMillis(20), -45, Duration.ofMillis(500));
+
+    @Test
+    void splitsSpeechAndSilenceAndIgnoresShortPauses() throws IOException {
+        // 2s silence, 3s speech, 0.3s pause, 2s speech, 1s silence, 2s speech, 2s silence
+        byte[] pcm = pcm(0, 2, 1, 3, 0, 0.3, 1, 2, 0, 1, 1, 2, 0, 2);
+        WavFormat format = format(pcm.length);
+
+        List<AudioRegion> regions = detector.detect(new ByteArrayInputStream(pcm), format);
+
+        assertThat(regions).containsExactly(
+                new AudioRegion(0, seconds(2), true),
+                new AudioRegion(seconds(2), seconds(7.3), false),
+                new AudioRegion(seconds(7.3), seconds(8.3), true),
+                new AudioRegion(seconds(8.3), seconds(10.3), false),
+                new AudioRegion(seconds(10.3), seconds(12.3), true));
+    }
+
+    @Test
+    void speechBoundsDropLeadingAndTrailingSilenceWithPadding() throws IOException {
+        byte[] pcm = pcm(0, 3, 1, 4, 0, 5);
+        WavFormat format = format(pcm.length);
+
+        List<AudioRegion> regions = detector.detect(new ByteArrayInputStream(pcm), format);
+        AudioSegment speech = SilenceDetector.speechBounds(regions, format.bytesFor(Duration.ofMillis(250)), format.dataLength());
+
+        assertThat(speech).isEqualTo(new AudioSegment(seconds(2.75), seconds(7.25)));
+    }
+
+    @Test
+    void slicedResourceIsAValidWavOfTheSpeech() throws IOException {
+        byte[] pcm = pcm(0, 1, 1, 2, 0, 1);
+        WavFormat format = format(pcm.length);
+        ByteArrayOutputStream wav = new ByteArrayOutputStream();
+        wav.write(format.header(pcm.length));
+        wav.write(pcm);
+        AudioSegment speech = new AudioSegment(seconds(1), seconds(3));
+
+        byte[] sliced = new WavSliceResource(new ByteArrayResource(wav.toByteArray()), format, speech)
+                .getInputStream().readAllBytes();
+
+        WavFormat slicedFormat = WavFormat.read(new ByteArrayInputStream(sliced), sliced.length).orElseThrow();
+        assertThat(slicedFormat.dataLength()).isEqualTo(speech.length());
+        assertThat(sliced).hasSize(WavFormat.HEADER_SIZE + (int) speech.length());
+    }
+
+    private static WavFormat format(long dataLength) {
+        return new WavFormat(1, SAMPLE_RATE, 16, 2, WavFormat.HEADER_SIZE, dataLength);
+    }
+
+    private static long seconds(double seconds) {
+        return Math.round(seconds * BYTES_PER_SECOND);
+    }
+
+    // Pairs of (loud 0/1, seconds): a tone for speech, a faint noise floor for silence
+    private static byte[] pcm(double... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int p = 0; p < parts.length; p += 2) {
+            boolean loud = parts[p] > 0;
+            int samples = (int) Math.round(parts[p + 1] * SAMPLE_RATE);
+            for (int i = 0; i < samples; i++) {
+                int sample = loud ? (int) (8000 * Math.sin(i * 0.1)) : (i % 7) - 3;
+                out.write(sample);
+                out.write(sample >> 8);
+            }
+        }
+        return out.toByteArray();
+    }
+}
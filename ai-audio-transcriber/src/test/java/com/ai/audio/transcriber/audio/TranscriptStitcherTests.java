@@ -0,0 +1,50 @@
+package com.ai.audio.transcriber.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranscriptStitcherTests {
+
+    private final TranscriptStitcher stitcher = new TranscriptStitcher(50);
+
+    @Test
+    void dropsTheWordsRepeatedFromThePreviousSegment() {
+        String stitched = stitcher.stitch(List.of(
+                "the quick brown fox jumps",
+                "fox jumps over the lazy dog",
+                "lazy dog sleeps"));
+
+        assertThat(stitched).isEqualTo("the quick brown fox jumps over the lazy dog sleeps");
+    }
+
+    @Test
+    void comparesWordsWithoutCaseOrPunctuation() {
+        String stitched = stitcher.stitch(List.of("I said hello there.", "Hello there, my friend"));
+
+        assertThat(stitched).isEqualTo("I said hello there. my friend");
+    }
+
+    @Test
+    void skipsAMisheardWordAtTheStartOfASegment() {
+        // The cut went through "went", which the next segment heard as "bent"
+        String stitched = stitcher.stitch(List.of("we went to the market", "bent to the market and bought bread"));
+
+        assertThat(stitched).isEqualTo("we went to the market and bought bread");
+    }
+
+    @Test
+    void aSingleSharedWordIsNotAnOverlap() {
+        assertThat(stitcher.stitch(List.of("one two three", "three four"))).isEqualTo("one two three three four");
+    }
+
+    @Test
+    void emptySegmentsAreSkippedAndTheNeighboursStillAlign() {
+        String stitched = stitcher.stitch(Arrays.asList("one two three", "", null, "   ", "two three four"));
+
+        assertThat(stitched).isEqualTo("one two three four");
+    }
+}
@@ -0,0 +1,148 @@
+package com.ai.audio.transcriber.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WavFormatTests {
+
+    private static final byte[] PCM = new byte[3200]; // 0.1s of 16 kHz mono
+
+    @Test
+    void readsItsOwnCanonicalHeader() throws IOException {
+        WavFormat written = new WavFormat(2, 44_100, 16, 4, WavFormat.HEADER_SIZE, PCM.length);
+        byte[] wav = concat(written.header(PCM.length), PCM);
+
+        WavFormat read = WavFormat.read(new ByteArrayInputStream(wav), wav.length).orElseThrow();
+
+        assertThat(read).isEqualTo(written);
+        assertThat(read.bytesPerSecond()).isEqualTo(176_400);
+    }
+
+    @Test
+    void skipsAnOddSizedFmtAndAListChunkBeforeTheData() throws IOException {
+        // WAVEFORMATEX with its 2-byte cbSize (18 bytes), then LIST metadata of odd length plus its pad byte
+        Wav wav = new Wav()
+                .chunk("fmt ", fmt(1, 1, 16_000, 2, 16, 18))
+                .chunk("LIST", "INFO!".getBytes(StandardCharsets.US_ASCII))
+                .chunk("data", PCM);
+
+        WavFormat format = WavFormat.read(wav.stream(), wav.size()).orElseThrow();
+
+        // 12 (RIFF/WAVE) + 8+18 (fmt) + 8+5+1 (LIST, padded) + 8 (data header)
+        assertThat(format.dataOffset()).isEqualTo(60);
+        assertThat(format.dataLength()).isEqualTo(PCM.length);
+        assertThat(format.sampleRate()).isEqualTo(16_000);
+        assertThat(format.duration()).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void extensibleFormatIsAccepted() throws IOException {
+        Wav wav = new Wav()
+                .chunk("fmt ", fmt(0xFFFE, 1, 16_000, 2, 16, 40))
+                .chunk("data", PCM);
+
+        assertThat(WavFormat.read(wav.stream(), wav.size())).isPresent();
+    }
+
+    @Test
+    void unknownDataLengthOfAStreamedFileIsTakenFromTheSize() throws IOException {
+        // Streaming encoders leave 0xFFFFFFFF; an odd trailing byte is not a whole sample
+        byte[] pcm = new byte[PCM.length + 1];
+        Wav wav = new Wav()
+                .chunk("fmt ", fmt(1, 1, 16_000, 2, 16, 16))
+                .chunk("data", 0xFFFFFFFF, pcm);
+
+        WavFormat format = WavFormat.read(wav.stream(), wav.size()).orElseThrow();
+
+        assertThat(format.dataOffset()).isEqualTo(WavFormat.HEADER_SIZE);
+        assertThat(format.dataLength()).isEqualTo(PCM.length);
+    }
+
+    @Test
+    void anythingButSixteenBitPcmIsOpaque() throws IOException {
+        Wav eightBit = new Wav()
+                .chunk("fmt ", fmt(1, 1, 16_000, 1, 8, 16))
+                .chunk("data", PCM);
+        Wav floatingPoint = new Wav()
+                .chunk("fmt ", fmt(3, 1, 16_000, 4, 32, 16))
+                .chunk("data", PCM);
+        byte[] mp3 = "ID3\u0004\u0000\u0000\u0000\u0000\u0000\u0000".getBytes(StandardCharsets.ISO_8859_1);
+
+        assertThat(WavFormat.read(eightBit.stream(), eightBit.size())).isEmpty();
+        assertThat(WavFormat.read(floatingPoint.stream(), floatingPoint.size())).isEmpty();
+        assertThat(WavFormat.read(new ByteArrayInputStream(mp3), mp3.length)).isEmpty();
+    }
+
+    @Test
+    void byteCountsStayOnSampleBoundaries() {
+        WavFormat stereo = new WavFormat(2, 16_000, 16, 4, WavFormat.HEADER_SIZE, 64_000);
+
+        assertThat(stereo.bytesFor(Duration.ofMillis(1))).isEqualTo(64);
+        assertThat(stereo.alignDown(67)).isEqualTo(64);
+        assertThat(stereo.duration()).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    private static byte[] fmt(int audioFormat, int channels, int sampleRate, int blockAlign, int bitsPerSample, int size) {
+        ByteBuffer fmt = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        fmt.putShort((short) audioFormat);
+        fmt.putShort((short) channels);
+        fmt.putInt(sampleRate);
+        fmt.putInt(sampleRate * blockAlign);
+        fmt.putShort((short) blockAlign);
+        fmt.putShort((short) bitsPerSample);
+        return fmt.array(); // cbSize and any extension stay zero
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] joined = new byte[a.length + b.length];
+        System.arraycopy(a, 0, joined, 0, a.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    // RIFF/WAVE file assembled chunk by chunk, odd chunks padded like the spec says
+    private static class Wav {
+
+        private final ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+
+        Wav chunk(String id, byte[] body) {
+            return chunk(id, body.length, body);
+        }
+
+        Wav chunk(String id, int declaredSize, byte[] body) {
+            chunks.writeBytes(id.getBytes(StandardCharsets.US_ASCII));
+            chunks.writeBytes(intLE(declaredSize));
+            chunks.writeBytes(body);
+            if ((body.length & 1) == 1 && !"data".equals(id)) {
+                chunks.write(0);
+            }
+            return this;
+        }
+
+        long size() {
+            return 12 + chunks.size();
+        }
+
+        ByteArrayInputStream stream() {
+            ByteArrayOutputStream wav = new ByteArrayOutputStream();
+            wav.writeBytes("RIFF".getBytes(StandardCharsets.US_ASCII));
+            wav.writeBytes(intLE(4 + chunks.size()));
+            wav.writeBytes("WAVE".getBytes(StandardCharsets.US_ASCII));
+            wav.writeBytes(chunks.toByteArray());
+            return new ByteArrayInputStream(wav.toByteArray());
+        }
+
+        private static byte[] intLE(int value) {
+            return ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+        }
+    }
+}
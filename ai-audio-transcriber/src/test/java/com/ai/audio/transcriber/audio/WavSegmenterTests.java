@@ -0,0 +1,122 @@
+package com.ai.audio.transcriber.audio;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WavSegmenterTests {
+
+    private static final int SAMPLE_RATE = 16_000;
+    private static final long BYTES_PER_SECOND = SAMPLE_RATE * 2;
+
+    private final SilenceDetector detector = new SilenceDetector(Duration.ofMillis(20), -45, Duration.ofMillis(500));
+    // 10s segments, 1s overlap, cuts searched in the 2s before each target
+    private final WavSegmenter segmenter = new WavSegmenter(detector, Duration.ofSeconds(10), Duration.ofSeconds(1),
+            Duration.ofSeconds(2), 100 * 1024 * 1024);
+
+    @Test
+    void cutsInTheMiddleOfAPauseInsideTheSearchWindowAndOverlapsTheNextSegment() throws IOException {
+        // Pauses at 8.5-9.5s and 17.2-18.0s, both inside the windows before the 10s and 19s targets
+        byte[] wav = wav(Sound.TONE, 8.5, Sound.NOISE, 1.0, Sound.TONE, 7.7, Sound.NOISE, 0.8, Sound.TONE, 7.0);
+        WavFormat format = format(wav);
+
+        List<AudioSegment> segments = segmenter.plan(new ByteArrayResource(wav), format);
+
+        assertThat(segments).containsExactly(
+                new AudioSegment(0, seconds(9)),
+                new AudioSegment(seconds(8), seconds(17.6)),
+                new AudioSegment(seconds(16.6), seconds(25)));
+    }
+
+    @Test
+    void pausesOutsideTheSearchWindowAreIgnored() throws IOException {
+        // A long pause at 3-5s is far before the first target; the only quiet spot near it is a 100ms dip
+        byte[] wav = wav(Sound.TONE, 3, Sound.NOISE, 2, Sound.TONE, 4.2, Sound.ZERO, 0.1, Sound.TONE, 5.7);
+        WavFormat format = format(wav);
+
+        List<AudioSegment> segments = segmenter.plan(new ByteArrayResource(wav), format);
+
+        // The dip is shorter than a pause, so the quietest 20ms window decides: middle of its first window
+        assertThat(segments).containsExactly(
+                new AudioSegment(0, seconds(9.21)),
+                new AudioSegment(seconds(8.21), seconds(15)));
+    }
+
+    @Test
+    void recordingShorterThanOneSegmentStaysWhole() throws IOException {
+        byte[] wav = wav(Sound.TONE, 6);
+        WavFormat format = format(wav);
+
+        assertThat(segmenter.plan(new ByteArrayResource(wav), format))
+                .containsExactly(new AudioSegment(0, format.dataLength()));
+    }
+
+    @Test
+    void providerSizeLimitShortensTheSegments() throws IOException {
+        long maxSegmentBytes = seconds(4) + seconds(1) + WavFormat.HEADER_SIZE;
+        WavSegmenter small = new WavSegmenter(detector, Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofSeconds(2), maxSegmentBytes);
+        byte[] wav = wav(Sound.TONE, 12);
+        WavFormat format = format(wav);
+
+        List<AudioSegment> segments = small.plan(new ByteArrayResource(wav), format);
+
+        assertThat(segments).hasSizeGreaterThan(2);
+        assertThat(segments).allSatisfy(segment ->
+                assertThat(WavFormat.HEADER_SIZE + segment.length()).isLessThanOrEqualTo(maxSegmentBytes));
+        assertThat(segments.get(segments.size() - 1).endByte()).isEqualTo(format.dataLength());
+    }
+
+    @Test
+    void extractedSegmentIsAStandaloneWav() throws IOException {
+        byte[] wav = wav(Sound.TONE, 2);
+        WavFormat format = format(wav);
+        AudioSegment segment = new AudioSegment(seconds(0.5), seconds(1.5));
+
+        Resource extracted = segmenter.extract(new ByteArrayResource(wav), format, segment);
+
+        byte[] bytes = extracted.getInputStream().readAllBytes();
+        assertThat(WavFormat.read(new ByteArrayInputStream(bytes), bytes.length).orElseThrow().dataLength())
+                .isEqualTo(segment.length());
+    }
+
+    private static WavFormat format(byte[] wav) throws IOException {
+        return WavFormat.read(new ByteArrayInputStream(wav), wav.length).orElseThrow();
+    }
+
+    private static long seconds(double seconds) {
+        return Math.round(seconds * BYTES_PER_SECOND);
+    }
+
+    private enum Sound { TONE, NOISE, ZERO }
+
+    // Pairs of (sound, seconds) as a 16 kHz mono WAV: a tone for speech, a faint noise floor or digital zero for quiet
+    private static byte[] wav(Object... parts) {
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        for (int p = 0; p < parts.length; p += 2) {
+            Sound sound = (Sound) parts[p];
+            int samples = (int) Math.round(((Number) parts[p + 1]).doubleValue() * SAMPLE_RATE);
+            for (int i = 0; i < samples; i++) {
+                int sample = switch (sound) {
+                    case TONE -> (int) (8000 * Math.sin(i * 0.1));
+                    case NOISE -> (i % 7) - 3;
+                    case ZERO -> 0;
+                };
+                pcm.write(sample);
+                pcm.write(sample >> 8);
+            }
+        }
+        WavFormat format = new WavFormat(1, SAMPLE_RATE, 16, 2, WavFormat.HEADER_SIZE, pcm.size());
+        ByteArrayOutputStream wav = new ByteArrayOutputStream();
+        wav.writeBytes(format.header(pcm.size()));
+        wav.writeBytes(pcm.toByteArray());
+        return wav.toByteArray();
+    }
+}
@@ -0,0 +1,85 @@
+package com.ai.audio.transcriber.benchmark;
+
+import com.ai.audio.transcriber.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT cost in JwtAuthFilter, before and after building the key and parser once
+ * and caching verified claims.
+ * <ul>
+ *     <li>{@code legacyThreeParses}: what the filter used to do, extractUsername plus isTokenValid,
+ *     i.e. three signature checks, each decoding the key and building a new parser</li>
+ *     <li>{@code singleParseSharedParser}: one signature check with the shared parser (a token seen for the first time)</li>
+ *     <li>{@code cachedClaims}: the common case, a token already verified on an earlier request</li>
+ * </ul>
+ * Run with {@code mvn -Pbenchmark test -Dbenchmark=JwtAuthBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthBenchmark {
+
+    private String secretKey;
+    private String token;
+    private JwtService jwtService;
+    private JwtParser sharedParser;
+
+    @Setup
+    public void setUp() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        secretKey = Encoders.BASE64.encode(key);
+
+        jwtService = new JwtService(secretKey, 3_600_000, 10_000);
+        UserDetails user = User.withUsername("benchmark@example.com").password("unused").authorities("USER").build();
+        token = jwtService.generateToken(user);
+        sharedParser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey))).build();
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public void legacyThreeParses(Blackhole blackhole) {
+        for (int i = 0; i < 3; i++) {
+            Claims claims = Jwts.parser()
+                    .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)))
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            blackhole.consume(claims);
+        }
+    }
+
+    @Benchmark
+    public Claims singleParseSharedParser() {
+        return sharedParser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Claims cachedClaims() {
+        return jwtService.verifiedClaims(token);
+    }
+}
@@ -0,0 +1,109 @@
+package com.ai.audio.transcriber.benchmark;
+
+import com.ai.audio.transcriber.audio.AudioRegion;
+import com.ai.audio.transcriber.audio.SilenceDetector;
+import com.ai.audio.transcriber.audio.WavFormat;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scan speed of the silence detector over large WAV files on disk, reported as MB/s
+ * (the "megabytes" secondary result). The file is generated once per trial: 16 kHz mono,
+ * a few seconds of tone alternating with short pauses and noise-floor silence.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Dbenchmark=SilenceDetectorBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SilenceDetectorBenchmark {
+
+    private static final int SAMPLE_RATE = 16_000;
+    private static final double MEGABYTE = 1024 * 1024;
+
+    @Param({"64", "512"})
+    public int sizeMb;
+
+    private Path wavFile;
+    private FileSystemResource resource;
+    private WavFormat format;
+    private SilenceDetector detector;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Processed {
+        public double megabytes;
+    }
+
+    @Setup(Level.Trial)
+    public void writeWav() throws IOException {
+        long dataLength = sizeMb * 1024L * 1024L;
+        WavFormat layout = new WavFormat(1, SAMPLE_RATE, 16, 2, WavFormat.HEADER_SIZE, dataLength);
+        wavFile = Files.createTempFile("silence-benchmark", ".wav");
+
+        Random random = new Random(42);
+        byte[] block = new byte[SAMPLE_RATE * 2];
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(wavFile), 1 << 20)) {
+            out.write(layout.header(dataLength));
+            for (long written = 0, second = 0; written < dataLength; written += block.length, second++) {
+                // 4s of speech-like tone, then 1s of silence
+                boolean speech = second % 5 != 4;
+                for (int i = 0; i < SAMPLE_RATE; i++) {
+                    int sample = speech
+                            ? (int) (6000 * Math.sin(i * 0.07) + random.nextInt(400) - 200)
+                            : random.nextInt(20) - 10;
+                    block[2 * i] = (byte) sample;
+                    block[2 * i + 1] = (byte) (sample >> 8);
+                }
+                out.write(block, 0, (int) Math.min(block.length, dataLength - written));
+            }
+        }
+
+        resource = new FileSystemResource(wavFile);
+        try (InputStream in = resource.getInputStream()) {
+            Optional<WavFormat> read = WavFormat.read(in, Files.size(wavFile));
+            format = read.orElseThrow();
+        }
+        detector = new SilenceDetector(Duration.ofMillis(20), -45, Duration.ofMillis(500));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWav() throws IOException {
+        Files.deleteIfExists(wavFile);
+    }
+
+    @Benchmark
+    public List<AudioRegion> detect(Processed processed) throws IOException {
+        List<AudioRegion> regions = detector.detect(resource, format);
+        processed.megabytes += format.dataLength() / MEGABYTE;
+        return regions;
+    }
+}
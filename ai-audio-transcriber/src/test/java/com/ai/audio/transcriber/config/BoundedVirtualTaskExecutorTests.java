@@ -0,0 +1,79 @@
+package com.ai.audio.transcriber.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedVirtualTaskExecutorTests {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final BoundedVirtualTaskExecutor executor = new BoundedVirtualTaskExecutor("test-vt-", 3, 1, Duration.ofSeconds(10));
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    void rejectsBeyondInFlightAndRunsOnlyMaxRunningAtOnce() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> {
+                maxSeen.accumulateAndGet(running.incrementAndGet(), Math::max);
+                await(release);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertThatThrownBy(() -> executor.execute(() -> { })).isInstanceOf(TaskRejectedException.class);
+
+        release.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxSeen).hasValue(1);
+        // Finished tasks give their slot back
+        CountDownLatch again = new CountDownLatch(1);
+        executor.execute(again::countDown);
+        assertThat(again.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void closeWaitsForAcceptedTasksAndRejectsNewOnes() throws Exception {
+        AtomicInteger finished = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                await(release);
+                finished.incrementAndGet();
+            });
+        }
+
+        Thread closer = Thread.ofVirtual().start(executor::close);
+        Thread.sleep(100);
+        assertThat(closer.isAlive()).isTrue();
+        assertThatThrownBy(() -> executor.execute(() -> { })).isInstanceOf(TaskRejectedException.class);
+
+        release.countDown();
+        closer.join(5_000);
+        assertThat(closer.isAlive()).isFalse();
+        assertThat(finished).hasValue(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
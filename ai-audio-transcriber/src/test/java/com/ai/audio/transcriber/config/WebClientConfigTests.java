@@ -0,0 +1,151 @@
+package com.ai.audio.transcriber.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the provider pools against a local server that holds its responses, so the pool limits
+ * and response timeouts actually fire.
+ */
+class WebClientConfigTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final WebClientConfig config = new WebClientConfig();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch arrived = new CountDownLatch(1);
+    private final ExecutorService serverThreads = Executors.newCachedThreadPool();
+    private HttpServer server;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // Answers only once released, keeping the connection busy meanwhile
+        server.createContext("/slow", exchange -> {
+            arrived.countDown();
+            await(release);
+            respond(exchange);
+        });
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        if (httpClient != null) {
+            httpClient.configuration().connectionProvider().disposeLater().block(TIMEOUT);
+        }
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void requestsBeyondPendingAcquireMaxAreRejectedRightAway() throws Exception {
+        // One connection and room for one waiter
+        WebClient webClient = geminiWebClient(1, 1, Duration.ofSeconds(30));
+        Mono<String> holder = get(webClient).cache();
+        holder.subscribe(body -> { }, error -> { });
+        assertThat(arrived.await(5, TimeUnit.SECONDS)).isTrue();
+        Mono<String> waiter = get(webClient).cache();
+        waiter.subscribe(body -> { }, error -> { });
+        // Let the waiter reach the acquire queue
+        Thread.sleep(100);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> get(webClient).block(TIMEOUT))
+                .rootCause().hasMessageContaining("Pending acquire queue has reached its maximum size of 1");
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+
+        // The queued request still gets the connection once it is free
+        release.countDown();
+        assertThat(waiter.block(TIMEOUT)).isEqualTo("ok");
+        assertThat(holder.block(TIMEOUT)).isEqualTo("ok");
+    }
+
+    @Test
+    void requestsWaitingLongerThanPendingAcquireTimeoutFail() throws Exception {
+        WebClient webClient = geminiWebClient(1, 10, Duration.ofMillis(200));
+        get(webClient).subscribe(body -> { }, error -> { });
+        assertThat(arrived.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> get(webClient).block(TIMEOUT)).hasRootCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void perCallResponseTimeoutFiresWhileTheServerIsStillWorking() {
+        WebClient webClient = geminiWebClient(10, 10, Duration.ofSeconds(10));
+
+        // Set per request on the native request, the way the Gemini clients do for each call type
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> webClient.get()
+                .uri(url())
+                .httpRequest(request -> ((HttpClientRequest) request.getNativeRequest()).responseTimeout(Duration.ofMillis(200)))
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(TIMEOUT))
+                .hasRootCauseInstanceOf(ReadTimeoutException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void openAiWebClientGetsTheChatResponseTimeout() {
+        httpClient = config.openAiHttpClient(10, 10, Duration.ofSeconds(10), Duration.ofSeconds(30), Duration.ofSeconds(5), false);
+        WebClient.Builder builder = WebClient.builder();
+        config.openAiWebClientCustomizer(httpClient, Duration.ofMillis(200)).customize(builder);
+
+        assertThatThrownBy(() -> get(builder.build()).block(TIMEOUT)).hasRootCauseInstanceOf(ReadTimeoutException.class);
+    }
+
+    private WebClient geminiWebClient(int maxConnections, int pendingAcquireMax, Duration pendingAcquireTimeout) {
+        httpClient = config.geminiHttpClient(maxConnections, pendingAcquireMax, pendingAcquireTimeout,
+                Duration.ofSeconds(30), Duration.ofSeconds(5), false);
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
+    private Mono<String> get(WebClient webClient) {
+        return webClient.get().uri(url()).retrieve().bodyToMono(String.class);
+    }
+
+    private String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/slow";
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.ai.audio.transcriber.controller;
+
+import com.ai.audio.transcriber.config.SecurityConfig;
+import com.ai.audio.transcriber.dto.TranscriptionResult;
+import com.ai.audio.transcriber.dto.TranscriptionStreamEvent;
+import com.ai.audio.transcriber.model.AnalysisStatus;
+import com.ai.audio.transcriber.model.AuthenticatedUser;
+import com.ai.audio.transcriber.model.Role;
+import com.ai.audio.transcriber.model.TranscriptionStage;
+import com.ai.audio.transcriber.service.AuthenticatedUserCache;
+import com.ai.audio.transcriber.service.CustomUserDetailsService;
+import com.ai.audio.transcriber.service.JwtService;
+import com.ai.audio.transcriber.service.TranscriptionJobService;
+import com.ai.audio.transcriber.service.TranscriptionService;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The reactive and SSE endpoints write their response on an ASYNC dispatch, which the JWT filter does not see.
+ * These run the real security chain (JwtAuthFilter is picked up as a Filter bean) over both dispatches.
+ */
+@WebMvcTest(TranscriptionController.class)
+@Import(SecurityConfig.class)
+class TranscriptionControllerSecurityTests {
+
+    private static final String TOKEN = "test-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TranscriptionService transcriptionService;
+    @MockBean
+    private TranscriptionJobService transcriptionJobService;
+    @MockBean
+    private JwtService jwtService;
+    @MockBean
+    private AuthenticatedUserCache authenticatedUserCache;
+    @MockBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    private final AuthenticatedUser user = new AuthenticatedUser(1L, "caller@example.com", Role.USER);
+    private final MockMultipartFile file = new MockMultipartFile("file", "clip.mp3", "audio/mpeg", new byte[]{1, 2, 3});
+
+    @BeforeEach
+    void setUp() {
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn(user.email());
+        when(jwtService.verifiedClaims(TOKEN)).thenReturn(claims);
+        when(jwtService.principal(claims)).thenReturn(Optional.of(user));
+        when(authenticatedUserCache.isActive(user)).thenReturn(true);
+    }
+
+    @Test
+    void reactiveResultIsWrittenForTheAuthenticatedCaller() throws Exception {
+        AtomicReference<Authentication> authenticationAtSubscribe = new AtomicReference<>();
+        when(transcriptionService.transcribeAndAnalyzeReactive(any())).thenReturn(
+                Mono.delay(Duration.ofMillis(50))
+                        .map(tick -> new TranscriptionResult("hello", "a greeting", 7L, AnalysisStatus.COMPLETED))
+                        .doOnSubscribe(s -> authenticationAtSubscribe.set(SecurityContextHolder.getContext().getAuthentication())));
+
+        MvcResult started = mockMvc.perform(multipart("/api/transcribe/reactive").file(file)
+                        .header("Authorization", "Bearer " + TOKEN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transcription").value("hello"))
+                .andExpect(jsonPath("$.recordId").value(7));
+        assertThat(authenticationAtSubscribe.get().getPrincipal()).isEqualTo(user);
+    }
+
+    @Test
+    void streamedEventsReachTheAuthenticatedCallerThroughTheAsyncDispatch() throws Exception {
+        AtomicReference<Authentication> authenticationAtSubscribe = new AtomicReference<>();
+        TranscriptionResult result = new TranscriptionResult("hello", "a greeting", 7L, AnalysisStatus.COMPLETED);
+        // Delayed, so the events are written after the request thread has returned
+        when(transcriptionService.transcribeAndAnalyzeStream(any(), eq("gemini"))).thenReturn(
+                Flux.just(TranscriptionStreamEvent.stage(TranscriptionStage.TRANSCRIBING),
+                                TranscriptionStreamEvent.token("hello"),
+                                TranscriptionStreamEvent.result(result))
+                        .delayElements(Duration.ofMillis(20))
+                        .doOnSubscribe(s -> authenticationAtSubscribe.set(SecurityContextHolder.getContext().getAuthentication())));
+
+        MvcResult started = mockMvc.perform(multipart("/api/transcribe/stream").file(file)
+                        .header("Authorization", "Bearer " + TOKEN)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:stage")))
+                .andExpect(content().string(containsString("event:token\ndata:{\"text\":\"hello\"}")))
+                .andExpect(content().string(containsString("event:result")))
+                .andExpect(content().string(containsString("\"recordId\":7")));
+        assertThat(authenticationAtSubscribe.get().getPrincipal()).isEqualTo(user);
+    }
+
+    @Test
+    void streamEndpointStillRejectsAnonymousCallers() throws Exception {
+        mockMvc.perform(multipart("/api/transcribe/stream").file(file).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isForbidden());
+        verify(transcriptionService, never()).transcribeAndAnalyzeStream(any(), any());
+    }
+
+    @Test
+    void reactiveEndpointStillRejectsAnonymousCallers() throws Exception {
+        mockMvc.perform(multipart("/api/transcribe/reactive").file(file))
+                .andExpect(status().isForbidden());
+        verify(transcriptionService, never()).transcribeAndAnalyzeReactive(any());
+    }
+}
@@ -0,0 +1,51 @@
+package com.ai.audio.transcriber.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeminiResponseTests {
+
+    @Test
+    void textJoinsAllPartsOfTheFirstCandidate() {
+        GeminiResponse response = new GeminiResponse(List.of(
+                candidate("{\"transcript\":\"Hello ", null, "there.\"}"),
+                candidate("ignored")));
+
+        assertThat(response.text()).isEqualTo("{\"transcript\":\"Hello there.\"}");
+    }
+
+    @Test
+    void textOfASinglePart() {
+        assertThat(new GeminiResponse(List.of(candidate("Hello there."))).text()).isEqualTo("Hello there.");
+    }
+
+    @Test
+    void textIsEmptyWhenThereIsNothingToRead() {
+        assertThat(new GeminiResponse(null).text()).isEmpty();
+        assertThat(new GeminiResponse(List.of()).text()).isEmpty();
+        assertThat(new GeminiResponse(List.of(new GeminiResponse.Candidate(null))).text()).isEmpty();
+        assertThat(new GeminiResponse(List.of(candidate((String) null))).text()).isEmpty();
+    }
+
+    @Test
+    void decodesOnlyTheFieldsItUses() throws Exception {
+        String json = """
+                {"candidates":[{"content":{"parts":[{"text":"Hello "},{"text":"there."}],"role":"model"},
+                  "finishReason":"STOP","safetyRatings":[]}],"usageMetadata":{"totalTokenCount":42}}
+                """;
+
+        GeminiResponse response = new ObjectMapper().readValue(json, GeminiResponse.class);
+
+        assertThat(response.text()).isEqualTo("Hello there.");
+    }
+
+    private static GeminiResponse.Candidate candidate(String... texts) {
+        return new GeminiResponse.Candidate(new GeminiResponse.Content(
+                Arrays.stream(texts).map(GeminiResponse.Part::new).toList()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.ai.audio.transcriber.repository;
+
+import com.ai.audio.transcriber.dto.TranscriptionHistoryItem;
+import com.ai.audio.transcriber.model.AnalysisStatus;
+import com.ai.audio.transcriber.model.Role;
+import com.ai.audio.transcriber.model.TranscriptionRecord;
+import com.ai.audio.transcriber.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the history queries (substring over the LONGTEXT columns, the keyset condition) against H2 in MySQL mode.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:history;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TranscriptionRepositoryTests {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private TranscriptionRepository repository;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(new User(null, "owner@example.com", "secret", Role.USER));
+        User other = entityManager.persist(new User(null, "other@example.com", "secret", Role.USER));
+        persist(other, "not-mine.mp3", NOON.plusHours(1), "Someone else's recording.");
+    }
+
+    @Test
+    void historyPreviewsAreCutFromTheLongTextColumns() {
+        persist(owner, "long.mp3", NOON, "x".repeat(5000));
+
+        List<TranscriptionHistoryItem> page = repository.findHistory(owner.getId(), Limit.of(10));
+
+        assertThat(page).singleElement().satisfies(item -> {
+            assertThat(item.originalFileName()).isEqualTo("long.mp3");
+            assertThat(item.transcriptionPreview()).hasSize(200);
+            assertThat(item.analysisPreview()).isEqualTo("Summary of long.mp3");
+            assertThat(item.analysisStatus()).isEqualTo(AnalysisStatus.COMPLETED);
+        });
+    }
+
+    @Test
+    void rowsWithTheSameCreatedDateAreOrderedAndPagedById() {
+        TranscriptionRecord older = persist(owner, "older.mp3", NOON.minusMinutes(1), "older");
+        TranscriptionRecord first = persist(owner, "a.mp3", NOON, "a");
+        TranscriptionRecord second = persist(owner, "b.mp3", NOON, "b");
+        TranscriptionRecord third = persist(owner, "c.mp3", NOON, "c");
+
+        List<TranscriptionHistoryItem> firstPage = repository.findHistory(owner.getId(), Limit.of(2));
+        assertThat(firstPage).extracting(TranscriptionHistoryItem::id).containsExactly(third.getId(), second.getId());
+
+        // Keyset from the last row of the page: the remaining row with the same date comes next, not skipped or repeated
+        TranscriptionHistoryItem last = firstPage.get(1);
+        List<TranscriptionHistoryItem> secondPage = repository.findHistoryAfter(owner.getId(), last.createdDate(), last.id(), Limit.of(2));
+        assertThat(secondPage).extracting(TranscriptionHistoryItem::id).containsExactly(first.getId(), older.getId());
+    }
+
+    @Test
+    void pageAfterTheLastRowIsEmpty() {
+        TranscriptionRecord only = persist(owner, "only.mp3", NOON, "only");
+
+        assertThat(repository.findHistoryAfter(owner.getId(), only.getCreatedDate(), only.getId(), Limit.of(10))).isEmpty();
+    }
+
+    private TranscriptionRecord persist(User user, String fileName, LocalDateTime createdDate, String transcription) {
+        TranscriptionRecord record = new TranscriptionRecord();
+        record.setUser(user);
+        record.setOriginalFileName(fileName);
+        record.setCreatedDate(createdDate);
+        record.setModel("gemini");
+        record.setFullTranscription(transcription);
+        record.setAiAnalysis("Summary of " + fileName);
+        return entityManager.persistFlushFind(record);
+    }
+}
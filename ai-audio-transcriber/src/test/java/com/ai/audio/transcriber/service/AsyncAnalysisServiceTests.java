@@ -0,0 +1,71 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.model.AnalysisStatus;
+import com.ai.audio.transcriber.repository.TranscriptionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncAnalysisServiceTests {
+
+    private final TranscriptionAnalysisService analysisService = mock(TranscriptionAnalysisService.class);
+    private final TranscriptionRepository repository = mock(TranscriptionRepository.class);
+    // Opens after two failures out of two calls
+    private final ProviderCircuitBreaker breaker = new ProviderCircuitBreaker("OpenAI", Clock.systemUTC(), 2, 2, 0.5,
+            Duration.ofMinutes(2), 0.8, Duration.ofMinutes(5), 1);
+
+    private final AsyncAnalysisService service = new AsyncAnalysisService(analysisService, repository, new SyncTaskExecutor(), breaker);
+
+    @Test
+    void completedSummaryIsWrittenIntoTheRecord() {
+        when(analysisService.summarize("Hello there.")).thenReturn("A greeting.");
+
+        service.schedule(7L, "Hello there.");
+
+        verify(repository).updateAnalysis(7L, "A greeting.", AnalysisStatus.COMPLETED);
+    }
+
+    @Test
+    void failedSummaryMarksTheRecordFailed() {
+        when(analysisService.summarize(any())).thenThrow(new IllegalStateException("OpenAI said no"));
+
+        service.schedule(7L, "Hello there.");
+
+        verify(repository).updateAnalysis(7L, null, AnalysisStatus.FAILED);
+    }
+
+    @Test
+    void openCircuitMarksTheRecordFailedWithoutCallingOpenAi() {
+        when(analysisService.summarize(any())).thenThrow(new IllegalStateException("OpenAI said no"));
+        service.schedule(1L, "first");
+        service.schedule(2L, "second");
+
+        service.schedule(3L, "third");
+
+        verify(analysisService, times(2)).summarize(any());
+        verify(analysisService, never()).summarize("third");
+        verify(repository).updateAnalysis(3L, null, AnalysisStatus.FAILED);
+    }
+
+    @Test
+    void rejectedTaskMarksTheRecordFailed() {
+        AsyncAnalysisService full = new AsyncAnalysisService(analysisService, repository, task -> {
+            throw new TaskRejectedException("queue full");
+        }, breaker);
+
+        full.schedule(7L, "Hello there.");
+
+        verify(analysisService, never()).summarize(any());
+        verify(repository).updateAnalysis(7L, null, AnalysisStatus.FAILED);
+    }
+}
@@ -0,0 +1,80 @@
+package com.ai.audio.transcriber.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.DoubleSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BackoffFilePollingStrategyTests {
+
+    private static final long ONE_MB = 1024 * 1024;
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void probesFastFirstThenBacksOffExponentiallyUpToTheCap() {
+        FilePollingStrategy strategy = strategy(() -> 0.5, 0.2, Duration.ofMinutes(10));
+        FilePollingStrategy.PollSchedule schedule = strategy.start(ONE_MB);
+
+        assertThat(delays(schedule, 7)).containsExactly(
+                Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2),
+                Duration.ofSeconds(4), Duration.ofSeconds(8), Duration.ofSeconds(8));
+    }
+
+    @Test
+    void jitterSpreadsTheDelayAroundTheBackoff() {
+        FilePollingStrategy.PollSchedule low = strategy(() -> 0.0, 0.2, Duration.ofMinutes(10)).start(ONE_MB);
+        FilePollingStrategy.PollSchedule high = strategy(() -> 0.999, 0.2, Duration.ofMinutes(10)).start(ONE_MB);
+
+        assertThat(delays(low, 3).get(2)).isEqualTo(Duration.ofMillis(800));
+        assertThat(delays(high, 3).get(2)).isEqualTo(Duration.ofMillis(1200));
+    }
+
+    @Test
+    void stopsAtTheDeadlineAndNeverSleepsPastIt() {
+        FilePollingStrategy strategy = strategy(() -> 0.5, 0.0, Duration.ofSeconds(3));
+        FilePollingStrategy.PollSchedule schedule = strategy.start(0);
+
+        // 250ms + 500ms + 1s + 1.25s (clamped from 2s) reach the 3s deadline
+        assertThat(delays(schedule, 5)).containsExactly(
+                Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofMillis(1250));
+        assertThat(schedule.nextDelay()).isEmpty();
+    }
+
+    @Test
+    void deadlineGrowsWithFileSize() {
+        FilePollingStrategy strategy = strategy(() -> 0.5, 0.0, Duration.ofSeconds(60));
+
+        FilePollingStrategy.PollSchedule small = strategy.start(0);
+        FilePollingStrategy.PollSchedule large = strategy.start(100 * ONE_MB);
+        clock.advance(Duration.ofSeconds(61));
+
+        assertThat(small.nextDelay()).isEmpty();
+        assertThat(large.nextDelay()).isPresent();
+    }
+
+    private BackoffFilePollingStrategy strategy(DoubleSupplier random, double jitter, Duration baseDeadline) {
+        return new BackoffFilePollingStrategy(clock, random,
+                Duration.ofMillis(250), Duration.ofMillis(500), 2.0, Duration.ofSeconds(8), jitter,
+                baseDeadline, Duration.ofSeconds(2));
+    }
+
+    // Takes up to `count` delays, advancing the fake clock as if each one had been slept
+    private List<Duration> delays(FilePollingStrategy.PollSchedule schedule, int count) {
+        List<Duration> delays = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Optional<Duration> delay = schedule.nextDelay();
+            if (delay.isEmpty()) {
+                break;
+            }
+            delays.add(delay.get());
+            clock.advance(delay.get());
+        }
+        return delays;
+    }
+}
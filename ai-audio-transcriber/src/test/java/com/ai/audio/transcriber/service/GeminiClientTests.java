@@ -0,0 +1,158 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.dto.GeminiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the client against a stubbed exchange: no network, every request is answered from
+ * {@link #respond(ClientRequest)} and logged.
+ */
+class GeminiClientTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final String HASH = "c0ffee";
+    private static final String OLD_FILE = "https://generativelanguage.googleapis.com/v1beta/files/old";
+    private static final String NEW_FILE = "https://generativelanguage.googleapis.com/v1beta/files/new";
+    private static final String SESSION_URL = "https://upload.example/session";
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final GeminiFileCache fileCache = new GeminiFileCache(Duration.ofHours(47), 100);
+    private final AudioSource audio = new AudioSource("clip.mp3", "audio/mpeg", 3, new ByteArrayResource(new byte[]{1, 2, 3}));
+
+    // Status and error message generateContent answers for the old file URI
+    private HttpStatus oldFileStatus = HttpStatus.OK;
+    private String oldFileMessage = "";
+    private GeminiClient client;
+
+    @BeforeEach
+    void setUp() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request.method() + " " + request.url());
+                    return respond(request);
+                })
+                .build();
+        FilePollingStrategy pollImmediately = fileSizeBytes -> () -> Optional.of(Duration.ZERO);
+        client = new GeminiClient(webClient, fileCache, pollImmediately,
+                new TranscriptionMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP),
+                DataSize.ofMegabytes(20), DataSize.ofMegabytes(8), 5, Duration.ofSeconds(1), Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(client, "apiKey", "test-key");
+    }
+
+    @Test
+    void cachedFileGoesStraightToGenerate() {
+        fileCache.put(HASH, OLD_FILE, "audio/mpeg");
+
+        GeminiResponse response = client.transcribe(audio, HASH, UploadProgressListener.NONE).block(TIMEOUT);
+
+        assertThat(response.text()).isEqualTo("from " + OLD_FILE);
+        assertThat(requests).hasSize(1).allMatch(request -> request.contains(":generateContent"));
+    }
+
+    @Test
+    void goneCachedFileIsUploadedAgain() {
+        // Gemini reports a deleted or foreign file as a 403 that names the file
+        Map<HttpStatus, String> goneAnswers = Map.of(
+                HttpStatus.NOT_FOUND, "Requested entity was not found.",
+                HttpStatus.FORBIDDEN, "You do not have permission to access the File old or it may not exist.");
+        goneAnswers.forEach((status, message) -> {
+            requests.clear();
+            oldFileStatus = status;
+            oldFileMessage = message;
+            fileCache.put(HASH, OLD_FILE, "audio/mpeg");
+
+            GeminiResponse response = client.transcribe(audio, HASH, UploadProgressListener.NONE).block(TIMEOUT);
+
+            assertThat(response.text()).isEqualTo("from " + NEW_FILE);
+            assertThat(requests).anyMatch(request -> request.equals("POST " + SESSION_URL));
+            // The fresh upload replaces the stale entry
+            assertThat(fileCache.get(HASH).fileUri()).isEqualTo(NEW_FILE);
+        });
+    }
+
+    @Test
+    void plainForbiddenOnACachedFileIsAnErrorWithoutAnUpload() {
+        oldFileStatus = HttpStatus.FORBIDDEN;
+        oldFileMessage = "Permission denied: Consumer 'api_key:test-key' has been suspended.";
+        fileCache.put(HASH, OLD_FILE, "audio/mpeg");
+
+        assertThatThrownBy(() -> client.transcribe(audio, HASH, UploadProgressListener.NONE).block(TIMEOUT))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(403));
+        assertThat(requests).noneMatch(request -> request.contains(SESSION_URL));
+        assertThat(fileCache.get(HASH).fileUri()).isEqualTo(OLD_FILE);
+    }
+
+    @Test
+    void otherErrorsOnACachedFileAreNotRetriedAsAnUpload() {
+        oldFileStatus = HttpStatus.BAD_REQUEST;
+        fileCache.put(HASH, OLD_FILE, "audio/mpeg");
+
+        assertThatThrownBy(() -> client.transcribe(audio, HASH, UploadProgressListener.NONE).block(TIMEOUT))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(400));
+        assertThat(requests).noneMatch(request -> request.contains(SESSION_URL));
+        assertThat(fileCache.get(HASH).fileUri()).isEqualTo(OLD_FILE);
+    }
+
+    // A minimal Files API + generateContent: start session, upload, file state, generate
+    private Mono<ClientResponse> respond(ClientRequest request) {
+        String url = request.url().toString();
+        if (url.contains("/upload/v1beta/files")) {
+            return Mono.just(ClientResponse.create(HttpStatus.OK).header("x-goog-upload-url", SESSION_URL).build());
+        }
+        if (url.equals(SESSION_URL)) {
+            return json(HttpStatus.OK, "{\"file\":{\"name\":\"files/new\",\"uri\":\"" + NEW_FILE + "\",\"state\":\"PROCESSING\"}}");
+        }
+        if (url.startsWith(NEW_FILE)) {
+            return json(HttpStatus.OK, "{\"state\":\"ACTIVE\"}");
+        }
+        if (url.contains(":generateContent")) {
+            // The referenced file is only in the JSON body, so the request is written out to read it
+            MockClientHttpRequest written = new MockClientHttpRequest(request.method(), request.url());
+            return request.writeTo(written, ExchangeStrategies.withDefaults())
+                    .then(written.getBodyAsString())
+                    .flatMap(body -> generate(body.contains(OLD_FILE) ? OLD_FILE : NEW_FILE));
+        }
+        return json(HttpStatus.NOT_FOUND, "{}");
+    }
+
+    private Mono<ClientResponse> generate(String fileUri) {
+        if (fileUri.equals(OLD_FILE) && oldFileStatus != HttpStatus.OK) {
+            return json(oldFileStatus, "{\"error\":{\"message\":\"" + oldFileMessage + "\",\"status\":\"" + oldFileStatus.name() + "\"}}");
+        }
+        return json(HttpStatus.OK, "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"from " + fileUri + "\"}]}}]}");
+    }
+
+    private static Mono<ClientResponse> json(HttpStatus status, String body) {
+        return Mono.just(ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+}
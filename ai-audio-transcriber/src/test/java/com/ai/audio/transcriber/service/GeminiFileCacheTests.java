@@ -0,0 +1,60 @@
+package com.ai.audio.transcriber.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeminiFileCacheTests {
+
+    private final MutableClock clock = new MutableClock();
+    private final GeminiFileCache cache = new GeminiFileCache(clock, Duration.ofHours(47), 2);
+
+    @Test
+    void entriesExpireAfterTheTtl() {
+        cache.put("a", "files/a", "audio/mpeg");
+
+        clock.advance(Duration.ofHours(47));
+        assertThat(cache.get("a")).isNotNull();
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    void expiredEntriesMakeRoomFirst() {
+        cache.put("a", "files/a", "audio/mpeg");
+        clock.advance(Duration.ofHours(1));
+        cache.put("b", "files/b", "audio/mpeg");
+        // a has expired, b has not
+        clock.advance(Duration.ofHours(46).plusSeconds(1));
+
+        cache.put("c", "files/c", "audio/mpeg");
+
+        assertThat(cache.get("b").fileUri()).isEqualTo("files/b");
+        assertThat(cache.get("c").fileUri()).isEqualTo("files/c");
+    }
+
+    @Test
+    void fullCacheDropsTheEntryClosestToExpiring() {
+        cache.put("a", "files/a", "audio/mpeg");
+        clock.advance(Duration.ofMinutes(1));
+        cache.put("b", "files/b", "audio/mpeg");
+        clock.advance(Duration.ofMinutes(1));
+
+        cache.put("c", "files/c", "audio/mpeg");
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    @Test
+    void evictForgetsTheFile() {
+        cache.put("a", "files/a", "audio/mpeg");
+        cache.evict("a");
+
+        assertThat(cache.get("a")).isNull();
+    }
+}
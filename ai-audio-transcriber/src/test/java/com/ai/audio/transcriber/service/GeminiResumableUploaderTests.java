@@ -0,0 +1,231 @@
+package com.ai.audio.transcriber.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the chunked uploader against a local stand-in for the Files API resumable endpoint.
+ */
+class GeminiResumableUploaderTests {
+
+    private static final int CHUNK_SIZE = GeminiResumableUploader.CHUNK_GRANULARITY;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private HttpServer server;
+    private FakeUploadSession session;
+    private GeminiResumableUploader uploader;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        session = new FakeUploadSession();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/upload", session);
+        server.start();
+        uploader = new GeminiResumableUploader(WebClient.create(), CHUNK_SIZE, 3, Duration.ZERO, TIMEOUT);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void uploadsInChunksAndFinalizesOnTheLastOne() {
+        byte[] audio = randomBytes(CHUNK_SIZE * 3 + 1000);
+        List<Long> progress = new CopyOnWriteArrayList<>();
+
+        String fileUri = uploader.upload(uploadUrl(), source(audio), (uploaded, total) -> progress.add(uploaded))
+                .block(TIMEOUT);
+
+        assertThat(fileUri).isEqualTo(FakeUploadSession.FILE_URI);
+        assertThat(session.committed()).isEqualTo(audio);
+        assertThat(session.chunkRequests).isEqualTo(4);
+        assertThat(session.finalizeRequests).isEqualTo(1);
+        assertThat(progress).containsExactly((long) CHUNK_SIZE, 2L * CHUNK_SIZE, 3L * CHUNK_SIZE, (long) audio.length);
+    }
+
+    @Test
+    void resumesFromServerOffsetAfterFailedChunk() {
+        byte[] audio = randomBytes(CHUNK_SIZE * 4);
+        // The second chunk dies after the server has committed half of it
+        session.failChunkAt(CHUNK_SIZE, CHUNK_SIZE / 2);
+
+        String fileUri = uploader.upload(uploadUrl(), source(audio), UploadProgressListener.NONE).block(TIMEOUT);
+
+        assertThat(fileUri).isEqualTo(FakeUploadSession.FILE_URI);
+        assertThat(session.committed()).isEqualTo(audio);
+        assertThat(session.queryRequests).isEqualTo(1);
+        // Only the uncommitted half of the failed chunk was sent again, nothing from byte zero
+        assertThat(session.bytesOnWire).isEqualTo(audio.length + CHUNK_SIZE / 2);
+    }
+
+    @Test
+    void givesUpAfterMaxConsecutiveFailures() {
+        byte[] audio = randomBytes(CHUNK_SIZE * 2);
+        session.failEveryChunk();
+
+        assertThatThrownBy(() -> uploader.upload(uploadUrl(), source(audio), UploadProgressListener.NONE).block(TIMEOUT))
+                .isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+        assertThat(session.chunkRequests).isEqualTo(4);
+        assertThat(session.queryRequests).isEqualTo(3);
+    }
+
+    @Test
+    void readsAStreamSourceOnlyOnce() {
+        byte[] audio = randomBytes(CHUNK_SIZE * 4);
+        CountingResource resource = new CountingResource(audio);
+
+        String fileUri = uploader.upload(uploadUrl(), new AudioSource("clip.wav", "audio/wav", audio.length, resource),
+                UploadProgressListener.NONE).block(TIMEOUT);
+
+        assertThat(fileUri).isEqualTo(FakeUploadSession.FILE_URI);
+        assertThat(session.committed()).isEqualTo(audio);
+        // Reading each chunk at its offset straight from the stream would have read 1+2+3+4 chunks
+        assertThat(resource.bytesRead).isEqualTo(audio.length);
+    }
+
+    private String uploadUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/upload?upload_id=test-session";
+    }
+
+    private static AudioSource source(byte[] audio) {
+        return new AudioSource("clip.wav", "audio/wav", audio.length, new ByteArrayResource(audio));
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    // Stream-only source like a multipart part: not a file, and counts what is read from it
+    private static class CountingResource extends ByteArrayResource {
+
+        long bytesRead;
+
+        CountingResource(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b != -1) {
+                        bytesRead++;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0) {
+                        bytesRead += read;
+                    }
+                    return read;
+                }
+            };
+        }
+    }
+
+    /**
+     * Minimal resumable session: commits chunks in order, answers status queries
+     * and returns the file resource on finalize. Failures can be injected per offset.
+     */
+    private static class FakeUploadSession implements HttpHandler {
+
+        static final String FILE_URI = "https://generativelanguage.googleapis.com/v1beta/files/test-file";
+
+        private final ByteArrayOutputStream committed = new ByteArrayOutputStream();
+        private long failAtOffset = -1;
+        private int commitBeforeFailure;
+        private boolean failAlways;
+
+        int chunkRequests;
+        int finalizeRequests;
+        int queryRequests;
+        long bytesOnWire;
+
+        void failChunkAt(long offset, int commitBeforeFailure) {
+            this.failAtOffset = offset;
+            this.commitBeforeFailure = commitBeforeFailure;
+        }
+
+        void failEveryChunk() {
+            this.failAlways = true;
+        }
+
+        byte[] committed() {
+            return committed.toByteArray();
+        }
+
+        @Override
+        public synchronized void handle(HttpExchange exchange) throws IOException {
+            String command = exchange.getRequestHeaders().getFirst("X-Goog-Upload-Command");
+            byte[] body = exchange.getRequestBody().readAllBytes();
+
+            if ("query".equals(command)) {
+                queryRequests++;
+                exchange.getResponseHeaders().add("X-Goog-Upload-Status", "active");
+                exchange.getResponseHeaders().add("X-Goog-Upload-Size-Received", String.valueOf(committed.size()));
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+
+            chunkRequests++;
+            bytesOnWire += body.length;
+            long offset = Long.parseLong(exchange.getRequestHeaders().getFirst("X-Goog-Upload-Offset"));
+            if (offset != committed.size()) {
+                exchange.sendResponseHeaders(400, -1);
+                exchange.close();
+                return;
+            }
+
+            if (failAlways || offset == failAtOffset) {
+                failAtOffset = -1;
+                committed.write(body, 0, failAlways ? 0 : commitBeforeFailure);
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+
+            committed.write(body, 0, body.length);
+            if (command.contains("finalize")) {
+                finalizeRequests++;
+                byte[] json = ("{\"file\":{\"name\":\"files/test-file\",\"uri\":\"" + FILE_URI
+                        + "\",\"mimeType\":\"audio/wav\",\"state\":\"PROCESSING\"}}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, json.length);
+                exchange.getResponseBody().write(json);
+            } else {
+                exchange.sendResponseHeaders(200, -1);
+            }
+            exchange.close();
+        }
+    }
+}
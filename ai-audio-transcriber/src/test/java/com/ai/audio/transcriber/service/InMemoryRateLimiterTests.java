@@ -0,0 +1,162 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.model.Role;
+import com.ai.audio.transcriber.repository.TranscriptionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryRateLimiterTests {
+
+    private final MutableClock clock = new MutableClock();
+    private final TranscriptionRepository repository = mock(TranscriptionRepository.class);
+    private final InMemoryRateLimiter limiter = new InMemoryRateLimiter(repository, clock,
+            Map.of(Role.USER, 3, Role.ADMIN, 10), Duration.ofHours(24), 1000);
+
+    @Test
+    void admitsUpToTheRoleLimitThenFreesSlotsAsTheWindowSlides() {
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        clock.advance(Duration.ofHours(1));
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isEmpty();
+        assertThat(limiter.reserve(2L, Role.ADMIN)).isPresent();
+
+        // The first admission leaves the window
+        clock.advance(Duration.ofHours(23).plusSeconds(1));
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isEmpty();
+    }
+
+    @Test
+    void releaseGivesTheSlotBack() {
+        RateLimiter.Reservation first = limiter.reserve(1L, Role.USER).orElseThrow();
+        clock.advance(Duration.ofMinutes(1));
+        limiter.reserve(1L, Role.USER);
+        limiter.reserve(1L, Role.USER);
+        limiter.release(first);
+
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isEmpty();
+    }
+
+    @Test
+    void warmsUpFromTheDatabaseOnlyOnce() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        when(repository.findCreatedDatesByUserIdAfter(eq(1L), any()))
+                .thenReturn(List.of(now.minusHours(2), now.minusHours(1)));
+
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isEmpty();
+        verify(repository, times(1)).findCreatedDatesByUserIdAfter(eq(1L), any());
+    }
+
+    @Test
+    void neverAdmitsMoreThanTheLimitUnderContention() throws Exception {
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> attempts = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                attempts.add(pool.submit(() -> {
+                    if (limiter.reserve(7L, Role.ADMIN).isPresent()) {
+                        admitted.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> attempt : attempts) {
+                attempt.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(admitted).hasValue(10);
+    }
+
+    @Test
+    void fullMapEvictsTheLeastRecentlyAdmittedIdleUsersFirst() {
+        InMemoryRateLimiter small = new InMemoryRateLimiter(repository, clock, Map.of(Role.USER, 3, Role.ADMIN, 10), Duration.ofHours(24), 3);
+        for (long userId = 1; userId <= 3; userId++) {
+            small.commit(small.reserve(userId, Role.USER).orElseThrow());
+            clock.advance(Duration.ofMinutes(1));
+        }
+
+        small.reserve(4L, Role.USER);
+
+        // User 1 was warmed up again, user 2 was still in memory
+        small.reserve(2L, Role.USER);
+        small.reserve(1L, Role.USER);
+        verify(repository, times(1)).findCreatedDatesByUserIdAfter(eq(2L), any());
+        verify(repository, times(2)).findCreatedDatesByUserIdAfter(eq(1L), any());
+    }
+
+    @Test
+    void usersWithPendingReservationsAreNeverEvicted() {
+        InMemoryRateLimiter small = new InMemoryRateLimiter(repository, clock, Map.of(Role.USER, 3, Role.ADMIN, 10), Duration.ofHours(24), 3);
+        RateLimiter.Reservation pending = small.reserve(1L, Role.USER).orElseThrow();
+        clock.advance(Duration.ofMinutes(1));
+        small.commit(small.reserve(2L, Role.USER).orElseThrow());
+        small.commit(small.reserve(3L, Role.USER).orElseThrow());
+
+        small.reserve(4L, Role.USER);
+
+        verify(repository, times(1)).findCreatedDatesByUserIdAfter(eq(1L), any());
+        assertThat(small.reserve(1L, Role.USER)).isPresent();
+        assertThat(small.reserve(1L, Role.USER)).isPresent();
+        assertThat(small.reserve(1L, Role.USER)).isEmpty();
+        // And the pending slot can still be given back
+        small.release(pending);
+        assertThat(small.reserve(1L, Role.USER)).isPresent();
+    }
+
+    @Test
+    void evictionUnderLoadKeepsUsersWithPendingReservationsAtTheirLimit() throws Exception {
+        InMemoryRateLimiter small = new InMemoryRateLimiter(repository, clock, Map.of(Role.USER, 3, Role.ADMIN, 10), Duration.ofHours(24), 20);
+        // Users 1-5 hold all their slots uncommitted while a few hundred others churn through the map
+        List<RateLimiter.Reservation> held = new ArrayList<>();
+        for (long userId = 1; userId <= 5; userId++) {
+            for (int i = 0; i < 3; i++) {
+                held.add(small.reserve(userId, Role.USER).orElseThrow());
+            }
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> attempts = new ArrayList<>();
+            for (long userId = 100; userId < 600; userId++) {
+                long churner = userId;
+                attempts.add(pool.submit(() -> small.reserve(churner, Role.USER).ifPresent(small::commit)));
+                attempts.add(pool.submit(() -> small.reserve(1 + churner % 5, Role.USER)));
+            }
+            for (Future<?> attempt : attempts) {
+                attempt.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (long userId = 1; userId <= 5; userId++) {
+            assertThat(small.reserve(userId, Role.USER)).isEmpty();
+            verify(repository, times(1)).findCreatedDatesByUserIdAfter(eq(userId), any());
+        }
+        held.forEach(small::release);
+        assertThat(small.reserve(1L, Role.USER)).isPresent();
+    }
+}
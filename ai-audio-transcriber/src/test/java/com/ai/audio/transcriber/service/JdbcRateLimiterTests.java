@@ -0,0 +1,160 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.model.Role;
+import com.ai.audio.transcriber.repository.TranscriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs against a real MySQL: the reservation outcome is the affected-rows count of the upsert,
+ * which H2 does not report the way MySQL does.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class JdbcRateLimiterTests {
+
+    @Container
+    private static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withUrlParam("useAffectedRows", "true");
+
+    private final MutableClock clock = new MutableClock();
+    private final TranscriptionRepository repository = mock(TranscriptionRepository.class);
+    private JdbcTemplate jdbcTemplate;
+    private JdbcRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS rate_limit_windows (" +
+                "user_id BIGINT NOT NULL, window_start BIGINT NOT NULL, used INT NOT NULL, PRIMARY KEY (user_id, window_start))");
+        jdbcTemplate.execute("DELETE FROM rate_limit_windows");
+        limiter = new JdbcRateLimiter(jdbcTemplate, new DataSourceTransactionManager(dataSource), repository, clock,
+                Map.of(Role.USER, 3, Role.ADMIN, 10), Duration.ofHours(24));
+    }
+
+    @Test
+    void admitsUpToTheLimitAndCountsSavedRecordsOnlyForANewWindow() {
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isEmpty();
+        assertThat(limiter.reserve(1L, Role.USER)).isEmpty();
+
+        assertThat(used(1L)).isEqualTo(3);
+        verify(repository, times(1)).countByUserIdAndCreatedDateAfter(eq(1L), any());
+    }
+
+    @Test
+    void releaseGivesTheSlotBack() {
+        RateLimiter.Reservation first = limiter.reserve(1L, Role.USER).orElseThrow();
+        limiter.reserve(1L, Role.USER);
+        limiter.reserve(1L, Role.USER);
+        limiter.release(first);
+
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isEmpty();
+    }
+
+    @Test
+    void firstWindowAfterSwitchingStoresIsSeededFromSavedRecords() {
+        when(repository.countByUserIdAndCreatedDateAfter(eq(1L), any())).thenReturn(2L);
+
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isEmpty();
+        assertThat(used(1L)).isEqualTo(3);
+    }
+
+    @Test
+    void reservationsStraddlingTheWindowBoundaryAreNotCountedTwice() {
+        // Reserved just before the boundary, the record is saved just after it
+        clock.advance(Duration.ofHours(24).minusSeconds(1));
+        RateLimiter.Reservation straddling = limiter.reserve(1L, Role.USER).orElseThrow();
+        limiter.reserve(1L, Role.USER);
+        clock.advance(Duration.ofSeconds(2));
+        when(repository.countByUserIdAndCreatedDateAfter(eq(1L), any())).thenReturn(1L);
+        limiter.commit(straddling);
+
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isPresent();
+        assertThat(limiter.reserve(1L, Role.USER)).isEmpty();
+
+        // The new window replaced the old one, and the saved records were only looked at for the very first window
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_windows WHERE user_id = 1", Integer.class)).isEqualTo(1);
+        assertThat(used(1L)).isEqualTo(3);
+        verify(repository, times(1)).countByUserIdAndCreatedDateAfter(eq(1L), any());
+    }
+
+    @Test
+    void releaseOfAStraddlingReservationDoesNotTouchTheNewWindow() {
+        clock.advance(Duration.ofHours(24).minusSeconds(1));
+        RateLimiter.Reservation straddling = limiter.reserve(1L, Role.USER).orElseThrow();
+        clock.advance(Duration.ofSeconds(2));
+        limiter.reserve(1L, Role.USER);
+
+        limiter.release(straddling);
+
+        assertThat(used(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void newWindowAlreadyFullFromSavedRecordsRejects() {
+        when(repository.countByUserIdAndCreatedDateAfter(eq(1L), any())).thenReturn(3L);
+
+        assertThat(limiter.reserve(1L, Role.USER)).isEmpty();
+        assertThat(used(1L)).isEqualTo(3);
+        assertThat(limiter.reserve(1L, Role.USER)).isEmpty();
+    }
+
+    @Test
+    void neverAdmitsMoreThanTheLimitUnderContention() throws Exception {
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> attempts = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                attempts.add(pool.submit(() -> {
+                    if (limiter.reserve(7L, Role.ADMIN).isPresent()) {
+                        admitted.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> attempt : attempts) {
+                attempt.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(admitted).hasValue(10);
+        assertThat(used(7L)).isEqualTo(10);
+    }
+
+    private int used(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT used FROM rate_limit_windows WHERE user_id = ?", Integer.class, userId);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.model.AuthenticatedUser;
+import com.ai.audio.transcriber.model.Role;
+import com.ai.audio.transcriber.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.io.Encoders;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTests {
+
+    private static final String SECRET = Encoders.BASE64.encode("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 100);
+
+    @Test
+    void tokenCarriesTheUserIdAndRoleForTheStatelessPrincipal() {
+        User user = new User(42L, "ada@example.com", "hash", Role.ADMIN);
+
+        Claims claims = jwtService.verifiedClaims(jwtService.generateToken(user));
+
+        assertThat(jwtService.principal(claims))
+                .contains(new AuthenticatedUser(42L, "ada@example.com", Role.ADMIN));
+    }
+
+    @Test
+    void tokensWithoutTheClaimsHaveNoStatelessPrincipal() {
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
+                .withUsername("ada@example.com").password("hash").authorities("USER").build();
+
+        Claims claims = jwtService.verifiedClaims(jwtService.generateToken(userDetails));
+
+        assertThat(claims.getSubject()).isEqualTo("ada@example.com");
+        assertThat(jwtService.principal(claims)).isEmpty();
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        JwtService other = new JwtService(Encoders.BASE64.encode(new byte[32]), 60_000, 100);
+        String foreignToken = other.generateToken(new User(1L, "eve@example.com", "hash", Role.ADMIN));
+
+        assertThatThrownBy(() -> jwtService.verifiedClaims(foreignToken)).isInstanceOf(JwtException.class);
+    }
+}
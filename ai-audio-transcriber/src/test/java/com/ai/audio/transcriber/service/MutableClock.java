@@ -0,0 +1,44 @@
+package com.ai.audio.transcriber.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock the tests move forward by hand. Tests that never move time can use {@link Clock#fixed} instead.
+ */
+class MutableClock extends Clock {
+
+    private final ZoneId zone;
+    private volatile Instant now;
+
+    MutableClock() {
+        this(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+    }
+
+    MutableClock(Instant start, ZoneId zone) {
+        this.now = start;
+        this.zone = zone;
+    }
+
+    void advance(Duration duration) {
+        now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ai.audio.transcriber.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProviderBulkheadTests {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @Test
+    void rejectsWithRetryAfterOnceSlotsAndQueueAreFull() throws Exception {
+        ProviderBulkhead bulkhead = new ProviderBulkhead("Gemini", 1, 0, Duration.ofSeconds(1), Duration.ofSeconds(7));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> holder = occupy(bulkhead, release);
+
+        assertThatThrownBy(() -> bulkhead.call(() -> "second"))
+                .isInstanceOfSatisfying(ProviderBusyException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("7");
+                });
+
+        release.countDown();
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(bulkhead.inFlight()).isZero();
+    }
+
+    @Test
+    void queuedCallerGetsTheSlotWhenItFrees() throws Exception {
+        ProviderBulkhead bulkhead = new ProviderBulkhead("Whisper", 1, 1, Duration.ofSeconds(5), Duration.ofSeconds(1));
+        CountDownLatch release = new CountDownLatch(1);
+        occupy(bulkhead, release);
+
+        Future<String> queued = executor.submit(() -> bulkhead.call(() -> "queued"));
+        waitUntil(() -> bulkhead.waiting() == 1);
+        release.countDown();
+
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+
+    @Test
+    void queuedCallerGivesUpAfterMaxWait() throws Exception {
+        ProviderBulkhead bulkhead = new ProviderBulkhead("Analysis", 1, 1, Duration.ofMillis(50), Duration.ofSeconds(1));
+        CountDownLatch release = new CountDownLatch(1);
+        occupy(bulkhead, release);
+
+        assertThatThrownBy(() -> bulkhead.call(() -> "late")).isInstanceOf(ProviderBusyException.class);
+        assertThat(bulkhead.waiting()).isZero();
+        release.countDown();
+    }
+
+    @Test
+    void reactiveCallsReleaseTheirSlotOnError() {
+        ProviderBulkhead bulkhead = new ProviderBulkhead("Gemini", 1, 0, Duration.ZERO, Duration.ofSeconds(1));
+
+        Mono<String> failing = bulkhead.mono(() -> Mono.error(new IllegalStateException("boom")));
+        assertThatThrownBy(failing::block).isInstanceOf(IllegalStateException.class);
+
+        assertThat(bulkhead.inFlight()).isZero();
+        assertThat(bulkhead.mono(() -> Mono.just("ok")).block()).isEqualTo("ok");
+    }
+
+    @Test
+    void adaptiveLimitBacksOffOnSlowCallsAndNeverGoesBelowTheMinimum() throws Exception {
+        ProviderBulkhead bulkhead = new ProviderBulkhead("Gemini", 10, 0, Duration.ZERO, Duration.ofSeconds(1),
+                true, 4, Duration.ZERO, 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            bulkhead.call(() -> {
+                Thread.sleep(1);
+                return null;
+            });
+        }
+
+        assertThat(bulkhead.limit()).isEqualTo(4);
+    }
+
+    private Future<String> occupy(ProviderBulkhead bulkhead, CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> holder = executor.submit(() -> bulkhead.call(() -> {
+            started.countDown();
+            release.await();
+            return "first";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        return holder;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ai.audio.transcriber.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProviderCircuitBreakerTests {
+
+    private final MutableClock clock = new MutableClock();
+    private final ProviderCircuitBreaker breaker = new ProviderCircuitBreaker("Gemini", clock,
+            4, 4, 0.5, Duration.ofSeconds(10), 0.75, Duration.ofSeconds(30), 2);
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThresholdAndRefusesCalls() {
+        succeed();
+        succeed();
+        fail(HttpStatus.BAD_GATEWAY);
+        assertThat(breaker.state()).isEqualTo(ProviderCircuitBreaker.State.CLOSED);
+
+        fail(HttpStatus.GATEWAY_TIMEOUT);
+
+        assertThat(breaker.state()).isEqualTo(ProviderCircuitBreaker.State.OPEN);
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThatThrownBy(() -> breaker.call(() -> "refused"))
+                .isInstanceOfSatisfying(ProviderBusyException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void slowCallsOpenTheCircuitToo() {
+        for (int i = 0; i < 3; i++) {
+            breaker.call(() -> {
+                clock.advance(Duration.ofSeconds(11));
+                return "slow";
+            });
+        }
+        succeed();
+
+        assertThat(breaker.state()).isEqualTo(ProviderCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void clientErrorsAndBulkheadRejectionsDoNotCount() {
+        for (int i = 0; i < 4; i++) {
+            fail(HttpStatus.BAD_REQUEST);
+            assertThatThrownBy(() -> breaker.call(() -> {
+                throw new ProviderBusyException("Gemini", Duration.ofSeconds(1));
+            })).isInstanceOf(ProviderBusyException.class);
+        }
+
+        assertThat(breaker.state()).isEqualTo(ProviderCircuitBreaker.State.CLOSED);
+        assertThat(breaker.failureRate()).isZero();
+    }
+
+    @Test
+    void halfOpenTrialsCloseTheCircuitOrOpenItAgain() {
+        tripOpen();
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(breaker.state()).isEqualTo(ProviderCircuitBreaker.State.HALF_OPEN);
+
+        fail(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(breaker.state()).isEqualTo(ProviderCircuitBreaker.State.OPEN);
+
+        clock.advance(Duration.ofSeconds(30));
+        succeed();
+        succeed();
+        assertThat(breaker.state()).isEqualTo(ProviderCircuitBreaker.State.CLOSED);
+    }
+
+    private void tripOpen() {
+        for (int i = 0; i < 4; i++) {
+            fail(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        assertThat(breaker.state()).isEqualTo(ProviderCircuitBreaker.State.OPEN);
+    }
+
+    private void succeed() {
+        breaker.call(() -> "ok");
+    }
+
+    private void fail(HttpStatus status) {
+        assertThatThrownBy(() -> breaker.call(() -> {
+            throw new ResponseStatusException(status);
+        })).isInstanceOf(ResponseStatusException.class);
+    }
+}
@@ -0,0 +1,72 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.audio.SilenceDetector;
+import com.ai.audio.transcriber.audio.WavFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SegmentedTranscriptionServiceTests {
+
+    private static final int SAMPLE_RATE = 16_000;
+
+    private final WhisperClient whisperClient = mock(WhisperClient.class);
+    private final SegmentedTranscriptionService service = new SegmentedTranscriptionService(whisperClient, new SyncTaskExecutor(),
+            new SilenceDetector(Duration.ofMillis(20), -45, Duration.ofMillis(500)),
+            Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofSeconds(2), DataSize.ofMegabytes(24));
+
+    // 25s of tone: long enough for three 10s segments
+    private final AudioSource recording = wav(25);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "enabled", true);
+    }
+
+    @Test
+    void recordingShorterThanMinDurationGoesToWhisperWhole() throws Exception {
+        ReflectionTestUtils.setField(service, "minDuration", Duration.ofMinutes(10));
+        when(whisperClient.transcribe(any())).thenReturn("the whole thing");
+
+        assertThat(service.transcribe(recording)).isEqualTo("the whole thing");
+        verify(whisperClient).transcribe(recording.resource());
+    }
+
+    @Test
+    void longRecordingIsSplitAndTheTranscriptsStitched() throws Exception {
+        ReflectionTestUtils.setField(service, "minDuration", Duration.ofSeconds(20));
+        when(whisperClient.transcribe(any())).thenReturn("a b c d", "c d e f", "e f g");
+
+        assertThat(service.transcribe(recording)).isEqualTo("a b c d e f g");
+        verify(whisperClient, times(3)).transcribe(any());
+    }
+
+    private static AudioSource wav(int seconds) {
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        for (int i = 0; i < seconds * SAMPLE_RATE; i++) {
+            int sample = (int) (8000 * Math.sin(i * 0.1));
+            pcm.write(sample);
+            pcm.write(sample >> 8);
+        }
+        WavFormat format = new WavFormat(1, SAMPLE_RATE, 16, 2, WavFormat.HEADER_SIZE, pcm.size());
+        ByteArrayOutputStream wav = new ByteArrayOutputStream();
+        wav.writeBytes(format.header(pcm.size()));
+        wav.writeBytes(pcm.toByteArray());
+        Resource resource = new ByteArrayResource(wav.toByteArray());
+        return new AudioSource("long.wav", "audio/wav", wav.size(), resource);
+    }
+}
@@ -0,0 +1,33 @@
+package com.ai.audio.transcriber.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranscriptFieldStreamTests {
+
+    @Test
+    void emitsTheTranscriptAsItArrives() {
+        TranscriptFieldStream stream = new TranscriptFieldStream();
+
+        assertThat(stream.append("{\n  \"transcr")).isEmpty();
+        assertThat(stream.append("ipt\": \"Hello ")).isEqualTo("Hello ");
+        assertThat(stream.append("there.")).isEqualTo("there.");
+        assertThat(stream.append("\", \"title\": \"Greeting\"")).isEmpty();
+        assertThat(stream.append(", \"summary\": \"A transcript\"}")).isEmpty();
+
+        assertThat(stream.json()).isEqualTo("{\n  \"transcript\": \"Hello there.\", \"title\": \"Greeting\", \"summary\": \"A transcript\"}");
+    }
+
+    @Test
+    void decodesEscapesSplitAcrossChunks() {
+        TranscriptFieldStream stream = new TranscriptFieldStream();
+
+        StringBuilder transcript = new StringBuilder();
+        for (String chunk : new String[]{"{\"transcript\":\"She said \\", "\"hi\\\" \\u00", "e9t\\u00e9\\nnext line\\\\", "\"}"}) {
+            transcript.append(stream.append(chunk));
+        }
+
+        assertThat(transcript.toString()).isEqualTo("She said \"hi\" \u00e9t\u00e9\nnext line\\");
+    }
+}
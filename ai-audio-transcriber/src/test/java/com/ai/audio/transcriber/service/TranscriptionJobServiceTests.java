@@ -0,0 +1,182 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.dto.TranscriptionResult;
+import com.ai.audio.transcriber.model.AnalysisStatus;
+import com.ai.audio.transcriber.model.JobStatus;
+import com.ai.audio.transcriber.model.Role;
+import com.ai.audio.transcriber.model.TranscriptionJob;
+import com.ai.audio.transcriber.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TranscriptionJobServiceTests {
+
+    private static final String HASH = "c0ffee";
+
+    private final TranscriptionService transcriptionService = mock(TranscriptionService.class);
+    private final ManualExecutor executor = new ManualExecutor();
+    // Starts at the real time, since jobs stamp their finish time with the system clock
+    private final MutableClock clock = new MutableClock(Instant.now(), ZoneId.systemDefault());
+    private final TranscriptionJobService jobService = new TranscriptionJobService(transcriptionService, executor,
+            new TranscriptionMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP), clock, Duration.ofMinutes(60));
+
+    private final User user = user(1L);
+    private final RateLimiter.Reservation reservation = new RateLimiter.Reservation(1L, 42L);
+    private final MockMultipartFile file = new MockMultipartFile("file", "clip.mp3", "audio/mpeg", new byte[]{1, 2, 3});
+    private Path spooled;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        spooled = Files.createTempFile("job-test", ".mp3");
+        when(transcriptionService.getCurrentAuthenticatedUser()).thenReturn(user);
+        AudioSource audio = new AudioSource("clip.mp3", "audio/mpeg", 3, new FileSystemResource(spooled));
+        when(transcriptionService.receive(file, "gemini")).thenReturn(new ReceivedUpload(audio, HASH, spooled));
+        when(transcriptionService.findCachedResult(user, HASH, "gemini", "clip.mp3")).thenReturn(Optional.empty());
+        when(transcriptionService.checkSlidingWindowLimit(user)).thenReturn(reservation);
+    }
+
+    @Test
+    void runsQueuedJobToCompletionAndCommitsTheSlot() throws Exception {
+        TranscriptionResult result = new TranscriptionResult("hello", "a greeting", 7L, AnalysisStatus.COMPLETED);
+        AtomicReference<JobStatus> statusWhileRunning = new AtomicReference<>();
+
+        TranscriptionJob job = jobService.submit(file, "gemini");
+        when(transcriptionService.transcribeAndAnalyze(eq(user), any(), eq(HASH), eq("gemini"), any()))
+                .thenAnswer(invocation -> {
+                    statusWhileRunning.set(jobService.getJob(job.getId()).getStatus());
+                    return result;
+                });
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.QUEUED);
+        executor.runNext();
+
+        assertThat(statusWhileRunning).hasValue(JobStatus.RUNNING);
+        assertThat(jobService.getJob(job.getId()).getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(job.getResult()).isEqualTo(result);
+        verify(transcriptionService).commitRateLimit(reservation);
+        verify(transcriptionService, never()).releaseRateLimit(any());
+        verify(transcriptionService).deleteTempFile(spooled);
+    }
+
+    @Test
+    void failedJobReleasesTheSlot() throws Exception {
+        when(transcriptionService.transcribeAndAnalyze(eq(user), any(), eq(HASH), eq("gemini"), any()))
+                .thenThrow(new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Gemini returned an unreadable answer."));
+
+        TranscriptionJob job = jobService.submit(file, "gemini");
+        executor.runNext();
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(job.getError()).isEqualTo("Gemini returned an unreadable answer.");
+        verify(transcriptionService).releaseRateLimit(reservation);
+        verify(transcriptionService, never()).commitRateLimit(any());
+        verify(transcriptionService).deleteTempFile(spooled);
+    }
+
+    @Test
+    void fullQueueAnswers503AndGivesEverythingBack() throws Exception {
+        executor.rejecting = true;
+
+        assertThatThrownBy(() -> jobService.submit(file, "gemini"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        verify(transcriptionService).releaseRateLimit(reservation);
+        verify(transcriptionService).deleteTempFile(spooled);
+    }
+
+    @Test
+    void cachedResultCompletesWithoutQueueingOrTakingASlot() throws Exception {
+        TranscriptionResult cached = new TranscriptionResult("hello", "a greeting", 3L, AnalysisStatus.COMPLETED);
+        when(transcriptionService.findCachedResult(user, HASH, "gemini", "clip.mp3")).thenReturn(Optional.of(cached));
+
+        TranscriptionJob job = jobService.submit(file, "gemini");
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(executor.tasks).isEmpty();
+        verify(transcriptionService, never()).checkSlidingWindowLimit(any());
+        verify(transcriptionService).deleteTempFile(spooled);
+    }
+
+    @Test
+    void finishedJobsAreDroppedAfterTheRetention() throws Exception {
+        when(transcriptionService.transcribeAndAnalyze(eq(user), any(), eq(HASH), eq("gemini"), any()))
+                .thenReturn(new TranscriptionResult("hello", "a greeting", 7L, AnalysisStatus.COMPLETED));
+        TranscriptionJob finished = jobService.submit(file, "gemini");
+        executor.runNext();
+        TranscriptionJob queued = jobService.submit(file, "gemini");
+
+        // Eviction runs on the next submission
+        clock.advance(Duration.ofMinutes(61));
+        jobService.submit(file, "gemini");
+
+        assertThatThrownBy(() -> jobService.getJob(finished.getId()))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        // Unfinished jobs are kept however old they are
+        assertThat(jobService.getJob(queued.getId()).getStatus()).isEqualTo(JobStatus.QUEUED);
+    }
+
+    @Test
+    void otherUsersJobsAreNotFound() throws Exception {
+        TranscriptionJob job = jobService.submit(file, "gemini");
+        when(transcriptionService.getCurrentAuthenticatedUser()).thenReturn(user(2L));
+
+        assertThatThrownBy(() -> jobService.getJob(job.getId()))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        user.setRole(Role.USER);
+        return user;
+    }
+
+    // Holds submitted tasks until the test runs them, or rejects them like a full pool
+    private static class ManualExecutor implements TaskExecutor {
+
+        final Deque<Runnable> tasks = new ArrayDeque<>();
+        boolean rejecting;
+
+        @Override
+        public void execute(Runnable task) {
+            if (rejecting) {
+                throw new TaskRejectedException("queue full");
+            }
+            tasks.add(task);
+        }
+
+        void runNext() {
+            tasks.removeFirst().run();
+        }
+    }
+}
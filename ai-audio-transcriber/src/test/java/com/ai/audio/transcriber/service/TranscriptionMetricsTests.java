@@ -0,0 +1,107 @@
+package com.ai.audio.transcriber.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TranscriptionMetricsTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+    private final InMemorySpanExporter spans = InMemorySpanExporter.create();
+    private final TranscriptionMetrics metrics = new TranscriptionMetrics(registry, observationRegistry);
+
+    TranscriptionMetricsTests() {
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(spans))
+                .build();
+        OtelTracer tracer = new OtelTracer(tracerProvider.get("test"), new OtelCurrentTraceContext(), event -> {
+        });
+        observationRegistry.observationConfig()
+                .observationHandler(new DefaultMeterObservationHandler(registry))
+                .observationHandler(new DefaultTracingObservationHandler(tracer));
+    }
+
+    @Test
+    void tagsEachCallWithStageProviderAndOutcome() {
+        assertThat(metrics.time("extract", TranscriptionMetrics.PROVIDER_GEMINI, () -> "text")).isEqualTo("text");
+        assertThatThrownBy(() -> metrics.time("spool", TranscriptionMetrics.PROVIDER_NONE, () -> {
+            throw new IOException("disk full");
+        })).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> metrics.time("whisper", TranscriptionMetrics.PROVIDER_OPENAI, () -> {
+            throw new ProviderBusyException("Whisper", Duration.ofSeconds(1));
+        })).isInstanceOf(ProviderBusyException.class);
+
+        assertThat(timer("extract", TranscriptionMetrics.PROVIDER_GEMINI, "success").count()).isEqualTo(1);
+        assertThat(timer("spool", TranscriptionMetrics.PROVIDER_NONE, "error").count()).isEqualTo(1);
+        assertThat(timer("whisper", TranscriptionMetrics.PROVIDER_OPENAI, "rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void reactiveTimersStartOnSubscription() {
+        Mono<String> generate = metrics.timeMono("generate", TranscriptionMetrics.PROVIDER_GEMINI, () -> Mono.just("text"));
+        assertThat(registry.find("transcription.stage").timers()).isEmpty();
+
+        generate.block();
+        Flux.interval(Duration.ofMillis(1)).take(10)
+                .transform(ticks -> metrics.timeFlux("generate_stream", TranscriptionMetrics.PROVIDER_GEMINI, () -> ticks))
+                .take(2)
+                .blockLast();
+
+        assertThat(timer("generate", TranscriptionMetrics.PROVIDER_GEMINI, "success").count()).isEqualTo(1);
+        assertThat(timer("generate_stream", TranscriptionMetrics.PROVIDER_GEMINI, "cancelled").count()).isEqualTo(1);
+    }
+
+    @Test
+    void stagesAreChildSpansOfTheRequest() {
+        metrics.observeRequest(TranscriptionMetrics.PROVIDER_GEMINI, () -> {
+            metrics.time("upload", TranscriptionMetrics.PROVIDER_GEMINI, () -> "file");
+            return metrics.timeMono("generate", TranscriptionMetrics.PROVIDER_GEMINI, () -> Mono.just("text")).block();
+        });
+
+        List<SpanData> finished = spans.getFinishedSpanItems();
+        assertThat(finished).extracting(SpanData::getName).containsExactly("upload", "generate", "transcribe");
+        SpanData root = finished.get(2);
+        assertThat(finished.subList(0, 2)).allSatisfy(span -> {
+            assertThat(span.getTraceId()).isEqualTo(root.getTraceId());
+            assertThat(span.getParentSpanId()).isEqualTo(root.getSpanId());
+        });
+        assertThat(registry.get("transcription.request").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void countsUploadedBytesAndRateLimitRejections() {
+        metrics.uploadedBytes(TranscriptionMetrics.PROVIDER_GEMINI, 1024);
+        metrics.uploadedBytes(TranscriptionMetrics.PROVIDER_GEMINI, 512);
+        metrics.rateLimitRejected("USER");
+
+        assertThat(registry.get("transcription.upload.bytes").tag("provider", "gemini").counter().count()).isEqualTo(1536);
+        assertThat(registry.get("transcription.rate.limit.rejections").tag("role", "USER").counter().count()).isEqualTo(1);
+    }
+
+    private Timer timer(String stage, String provider, String outcome) {
+        return registry.get("transcription.stage")
+                .tag("stage", stage)
+                .tag("provider", provider)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
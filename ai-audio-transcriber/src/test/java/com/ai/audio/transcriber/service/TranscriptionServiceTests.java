@@ -0,0 +1,387 @@
+package com.ai.audio.transcriber.service;
+
+import com.ai.audio.transcriber.dto.GeminiResponse;
+import com.ai.audio.transcriber.dto.TranscriptionHistoryItem;
+import com.ai.audio.transcriber.dto.TranscriptionHistoryPage;
+import com.ai.audio.transcriber.dto.TranscriptionResult;
+import com.ai.audio.transcriber.dto.TranscriptionStreamEvent;
+import com.ai.audio.transcriber.model.AnalysisStatus;
+import com.ai.audio.transcriber.model.AuthenticatedUser;
+import com.ai.audio.transcriber.model.Role;
+import com.ai.audio.transcriber.model.TranscriptionRecord;
+import com.ai.audio.transcriber.model.User;
+import com.ai.audio.transcriber.repository.TranscriptionRepository;
+import com.ai.audio.transcriber.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TranscriptionServiceTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final String HASH = "c0ffee";
+
+    private final SilenceTrimmer silenceTrimmer = mock(SilenceTrimmer.class);
+    private final AsyncAnalysisService asyncAnalysisService = mock(AsyncAnalysisService.class);
+    private final RateLimiter rateLimiter = mock(RateLimiter.class);
+    private final TranscriptionAnalysisService analysisService = mock(TranscriptionAnalysisService.class);
+    private final SegmentedTranscriptionService segmentedTranscriptionService = mock(SegmentedTranscriptionService.class);
+    private final TranscriptionRepository repository = mock(TranscriptionRepository.class);
+    private final GeminiClient geminiClient = mock(GeminiClient.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final TranscriptionService service = newService(asyncAnalysisService);
+
+    private final AuthenticatedUser caller = new AuthenticatedUser(1L, "caller@example.com", Role.USER);
+    private final RateLimiter.Reservation reservation = new RateLimiter.Reservation(1L, 100L);
+    private final MockMultipartFile file = new MockMultipartFile("file", "clip.mp3", "audio/mpeg", new byte[]{1, 2, 3, 4});
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(caller, null, caller.authorities()));
+        when(silenceTrimmer.trim(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(rateLimiter.reserve(1L, Role.USER)).thenReturn(Optional.of(reservation));
+        when(repository.save(any())).thenAnswer(invocation -> {
+            TranscriptionRecord record = invocation.getArgument(0);
+            record.setId(10L);
+            return record;
+        });
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void reactiveCommitsTheSlotOnceTheRecordIsSaved() throws Exception {
+        when(geminiClient.transcribe(any(), any(), any())).thenReturn(Mono.just(answer(
+                "{\"transcript\":\"Hello there.\",\"title\":\"Greeting\",\"summary\":\"A greeting.\",\"keyPoints\":[\"hello\"]}")));
+
+        TranscriptionResult result = service.transcribeAndAnalyzeReactive(file).block(TIMEOUT);
+
+        assertThat(result.transcription()).isEqualTo("Hello there.");
+        assertThat(result.keyPoints()).containsExactly("hello");
+        verify(rateLimiter).commit(reservation);
+        verify(rateLimiter, never()).release(any());
+    }
+
+    @Test
+    void reactiveReleasesTheSlotWhenTheClientGoesAway() throws Exception {
+        // Gemini never answers; the request is cancelled like on a disconnect or async timeout
+        when(geminiClient.transcribe(any(), any(), any())).thenReturn(Mono.never());
+
+        Disposable subscription = service.transcribeAndAnalyzeReactive(file).subscribe();
+        subscription.dispose();
+
+        verify(rateLimiter, timeout(TIMEOUT.toMillis())).release(reservation);
+        verify(rateLimiter, never()).commit(any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void unreadableGeminiAnswerIsABadGatewayAndReleasesTheSlot() throws Exception {
+        when(geminiClient.transcribe(any(), any(), any())).thenReturn(Mono.just(answer("Sure! Here is the transcript:")));
+
+        assertThatThrownBy(() -> service.transcribeAndAnalyzeReactive(file).block(TIMEOUT))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY));
+        verify(rateLimiter).release(reservation);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void missingGeminiAnswerIsABadGatewayOnEveryPath() throws Exception {
+        when(geminiClient.transcribe(any(), any(), any())).thenReturn(Mono.empty());
+        when(geminiClient.transcribe(any())).thenReturn(Mono.empty());
+        Path audio = Files.createTempFile("clip-", ".mp3");
+        try {
+            Files.write(audio, new byte[]{1, 2, 3, 4});
+
+            assertThatThrownBy(() -> service.transcribeAndAnalyze(file, "gemini")).isInstanceOfSatisfying(ResponseStatusException.class,
+                    e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY));
+            assertThatThrownBy(() -> service.transcribeAndAnalyzeReactive(file).block(TIMEOUT)).isInstanceOfSatisfying(ResponseStatusException.class,
+                    e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY));
+            assertThatThrownBy(() -> service.processAudioFile(audio)).isInstanceOfSatisfying(ResponseStatusException.class,
+                    e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY));
+        } finally {
+            Files.deleteIfExists(audio);
+        }
+        verify(rateLimiter, never()).commit(any());
+    }
+
+    @Test
+    void slotIsNeverReleasedOnAnEventLoopThreadWhenGeminiFails() throws Exception {
+        AtomicReference<Boolean> releasedOnNonBlockingThread = recordReleaseThread();
+        // Fails on a parallel (non-blocking) thread, standing in for the Netty event loop
+        when(geminiClient.transcribe(any(), any(), any())).thenReturn(
+                Mono.<GeminiResponse>error(new IllegalStateException("connection reset")).delaySubscription(Duration.ofMillis(10)));
+
+        assertThatThrownBy(() -> service.transcribeAndAnalyzeReactive(file).block(TIMEOUT)).isInstanceOf(ResponseStatusException.class);
+
+        verify(rateLimiter, timeout(TIMEOUT.toMillis())).release(reservation);
+        assertThat(releasedOnNonBlockingThread.get()).isFalse();
+    }
+
+    @Test
+    void slotIsNeverReleasedOnAnEventLoopThreadWhenTheStreamIsCancelled() throws Exception {
+        AtomicReference<Boolean> releasedOnNonBlockingThread = recordReleaseThread();
+        when(geminiClient.transcribeStream(any(), any(), any())).thenReturn(Flux.never());
+
+        Disposable subscription = service.transcribeAndAnalyzeStream(file, "gemini").subscribe();
+        // The client disconnect is seen on a non-blocking thread
+        Schedulers.parallel().schedule(subscription::dispose);
+
+        verify(rateLimiter, timeout(TIMEOUT.toMillis())).release(reservation);
+        assertThat(releasedOnNonBlockingThread.get()).isFalse();
+    }
+
+    private AtomicReference<Boolean> recordReleaseThread() {
+        AtomicReference<Boolean> releasedOnNonBlockingThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            releasedOnNonBlockingThread.set(Schedulers.isInNonBlockingThread());
+            return null;
+        }).when(rateLimiter).release(any());
+        return releasedOnNonBlockingThread;
+    }
+
+    @Test
+    void receiveHashesTheUploadWhileCopyingIt() throws Exception {
+        ReceivedUpload upload = service.receive(file, "gemini");
+        try {
+            String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(file.getBytes()));
+            assertThat(upload.contentHash()).isEqualTo(expected);
+            assertThat(Files.readAllBytes(upload.file())).isEqualTo(file.getBytes());
+            // A file, so the providers can seek in it and send it zero-copy
+            assertThat(upload.audio().resource().isFile()).isTrue();
+            assertThat(upload.audio().mimeType()).isEqualTo("audio/mpeg");
+        } finally {
+            Files.deleteIfExists(upload.file());
+        }
+    }
+
+    @Test
+    void ownCachedResultIsServedWithoutASlot() {
+        when(repository.findFirstByContentHashAndModelOrderByCreatedDateDesc(HASH, "gemini"))
+                .thenReturn(Optional.of(cachedRecord(1L, AnalysisStatus.COMPLETED)));
+
+        Optional<TranscriptionResult> result = service.findCachedResult(caller.toUser(), HASH, "gemini", "clip.mp3");
+
+        assertThat(result).hasValueSatisfying(r -> assertThat(r.recordId()).isEqualTo(5L));
+        verify(rateLimiter, never()).reserve(any(), any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void copyOfAnotherUsersResultTakesASlot() {
+        when(repository.findFirstByContentHashAndModelOrderByCreatedDateDesc(HASH, "gemini"))
+                .thenReturn(Optional.of(cachedRecord(2L, AnalysisStatus.COMPLETED)));
+
+        Optional<TranscriptionResult> result = service.findCachedResult(caller.toUser(), HASH, "gemini", "mine.mp3");
+
+        assertThat(result).hasValueSatisfying(r -> {
+            assertThat(r.recordId()).isEqualTo(10L);
+            assertThat(r.transcription()).isEqualTo("Hello there.");
+            assertThat(r.title()).isEqualTo("Greeting");
+        });
+        verify(rateLimiter).commit(reservation);
+        verify(rateLimiter, never()).release(any());
+    }
+
+    @Test
+    void retryOfAFailedAnalysisTakesASlot() {
+        when(repository.findFirstByContentHashAndModelOrderByCreatedDateDesc(HASH, "openai"))
+                .thenReturn(Optional.of(cachedRecord(1L, AnalysisStatus.FAILED)));
+
+        Optional<TranscriptionResult> result = service.findCachedResult(caller.toUser(), HASH, "openai", "clip.mp3");
+
+        assertThat(result).hasValueSatisfying(r -> assertThat(r.analysisStatus()).isEqualTo(AnalysisStatus.PENDING));
+        verify(asyncAnalysisService).schedule(5L, "Hello there.");
+        verify(rateLimiter).commit(reservation);
+    }
+
+    @Test
+    void cacheReuseIsRefusedOnceTheLimitIsReached() {
+        when(rateLimiter.reserve(1L, Role.USER)).thenReturn(Optional.empty());
+        when(repository.findFirstByContentHashAndModelOrderByCreatedDateDesc(HASH, "gemini"))
+                .thenReturn(Optional.of(cachedRecord(2L, AnalysisStatus.COMPLETED)));
+
+        assertThatThrownBy(() -> service.findCachedResult(caller.toUser(), HASH, "gemini", "clip.mp3"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        verify(repository, never()).save(any());
+    }
+
+    private static TranscriptionRecord cachedRecord(Long ownerId, AnalysisStatus status) {
+        User owner = new User();
+        owner.setId(ownerId);
+        TranscriptionRecord record = new TranscriptionRecord();
+        record.setId(5L);
+        record.setUser(owner);
+        record.setContentHash(HASH);
+        record.setModel(status == AnalysisStatus.FAILED ? "openai" : "gemini");
+        record.setFullTranscription("Hello there.");
+        record.setAiAnalysis(status == AnalysisStatus.COMPLETED ? "A greeting." : null);
+        record.setTitle("Greeting");
+        record.setAnalysisStatus(status);
+        return record;
+    }
+
+    @Test
+    void pipelinedOpenAiPathReturnsThePendingRecordAndTheAnalysisCompletesLater() throws Exception {
+        List<Runnable> queued = new ArrayList<>();
+        TranscriptionService pipelined = newService(new AsyncAnalysisService(analysisService, repository, queued::add, breaker("openai")));
+        ReflectionTestUtils.setField(pipelined, "pipelinedAnalysis", true);
+        when(segmentedTranscriptionService.transcribe(any())).thenReturn("Hello there.");
+        when(analysisService.summarize("Hello there.")).thenReturn("A greeting.");
+        AudioSource audio = new AudioSource("clip.mp3", "audio/mpeg", 4, new ByteArrayResource(new byte[]{1, 2, 3, 4}));
+
+        TranscriptionResult result = pipelined.transcribeAndAnalyze(caller.toUser(), audio, HASH, "openai", UploadProgressListener.NONE);
+
+        assertThat(result.recordId()).isEqualTo(10L);
+        assertThat(result.transcription()).isEqualTo("Hello there.");
+        assertThat(result.analysis()).isNull();
+        assertThat(result.analysisStatus()).isEqualTo(AnalysisStatus.PENDING);
+        verify(analysisService, never()).summarize(any());
+
+        // The analysis executor picks it up after the response went out
+        assertThat(queued).hasSize(1);
+        queued.get(0).run();
+        verify(repository).updateAnalysis(10L, "A greeting.", AnalysisStatus.COMPLETED);
+    }
+
+    @Test
+    void failedAnalysisStreamIsMarkedFailedOffTheEmittingThread() throws Exception {
+        when(segmentedTranscriptionService.transcribe(any())).thenReturn("Hello there.");
+        // Fails on a parallel thread, standing in for the event loop the tokens arrive on
+        when(analysisService.summarizeStream("Hello there.")).thenReturn(
+                Flux.<String>error(new IllegalStateException("stream reset")).delaySubscription(Duration.ofMillis(10)));
+        AtomicReference<String> updatedOn = new AtomicReference<>();
+        when(repository.updateAnalysis(10L, null, AnalysisStatus.FAILED)).thenAnswer(invocation -> {
+            updatedOn.set(Thread.currentThread().getName());
+            return 1;
+        });
+
+        List<ServerSentEvent<TranscriptionStreamEvent>> events = service.transcribeAndAnalyzeStream(file, "openai")
+                .collectList().block(TIMEOUT);
+
+        assertThat(events.get(events.size() - 1).event()).isEqualTo("error");
+        assertThat(updatedOn.get()).startsWith("boundedElastic");
+        // The transcript was saved, so the slot stays used
+        verify(rateLimiter).commit(reservation);
+        verify(rateLimiter, never()).release(any());
+    }
+
+    @Test
+    void analysisLeftByTheClientIsScheduledOffTheEventLoop() throws Exception {
+        when(segmentedTranscriptionService.transcribe(any())).thenReturn("Hello there.");
+        when(analysisService.summarizeStream("Hello there.")).thenReturn(Flux.never());
+        AtomicReference<Boolean> scheduledOnNonBlockingThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            scheduledOnNonBlockingThread.set(Schedulers.isInNonBlockingThread());
+            return null;
+        }).when(asyncAnalysisService).schedule(any(), any());
+
+        Disposable subscription = service.transcribeAndAnalyzeStream(file, "openai").subscribe();
+        verify(analysisService, timeout(TIMEOUT.toMillis())).summarizeStream("Hello there.");
+        // The client disconnect is seen on a non-blocking thread
+        Schedulers.parallel().schedule(subscription::dispose);
+
+        verify(asyncAnalysisService, timeout(TIMEOUT.toMillis())).schedule(10L, "Hello there.");
+        assertThat(scheduledOnNonBlockingThread.get()).isFalse();
+    }
+
+    @Test
+    void fullHistoryPageCarriesTheCursorOfItsLastRow() {
+        LocalDateTime noon = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(repository.findHistory(1L, Limit.of(3))).thenReturn(List.of(
+                historyItem(9L, noon), historyItem(8L, noon), historyItem(7L, noon)));
+        when(repository.findHistoryAfter(1L, noon, 8L, Limit.of(3))).thenReturn(List.of(historyItem(7L, noon)));
+
+        TranscriptionHistoryPage first = service.getHistory(null, 2);
+        assertThat(first.items()).extracting(TranscriptionHistoryItem::id).containsExactly(9L, 8L);
+        assertThat(first.nextCursor()).isNotNull();
+
+        TranscriptionHistoryPage last = service.getHistory(first.nextCursor(), 2);
+        assertThat(last.items()).extracting(TranscriptionHistoryItem::id).containsExactly(7L);
+        assertThat(last.nextCursor()).isNull();
+    }
+
+    @Test
+    void tamperedHistoryCursorIsABadRequest() {
+        String valid = new HistoryCursor(LocalDateTime.of(2024, 5, 1, 12, 0), 8L).encode();
+
+        for (String cursor : List.of("not base64!", valid.substring(0, valid.length() - 3),
+                Base64.getUrlEncoder().encodeToString("2024-05-01T12:00|eight".getBytes(StandardCharsets.UTF_8)))) {
+            assertThatThrownBy(() -> service.getHistory(cursor, 2))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+        verify(repository, never()).findHistoryAfter(any(), any(), any(), any());
+    }
+
+    private static TranscriptionHistoryItem historyItem(Long id, LocalDateTime createdDate) {
+        return new TranscriptionHistoryItem(id, "clip.mp3", createdDate, "Hello there.", "A greeting.", AnalysisStatus.COMPLETED);
+    }
+
+    private TranscriptionService newService(AsyncAnalysisService asyncAnalysis) {
+        return new TranscriptionService(
+                segmentedTranscriptionService, silenceTrimmer, asyncAnalysis, rateLimiter, analysisService,
+                repository, mock(UserRepository.class), geminiClient,
+                new ProviderBulkhead("Gemini", 10, 0, Duration.ZERO, Duration.ofSeconds(1)),
+                new ProviderBulkhead("Whisper", 10, 0, Duration.ZERO, Duration.ofSeconds(1)),
+                breaker("gemini"), breaker("openai"),
+                new TranscriptionMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP), objectMapper);
+    }
+
+    static GeminiResponse answer(String text) {
+        return new GeminiResponse(List.of(new GeminiResponse.Candidate(
+                new GeminiResponse.Content(List.of(new GeminiResponse.Part(text))))));
+    }
+
+    private static ProviderCircuitBreaker breaker(String name) {
+        return new ProviderCircuitBreaker(name, Clock.systemUTC(), 20, 10, 0.5, Duration.ofMinutes(2), 0.8,
+                Duration.ofSeconds(30), 2);
+    }
+}
@@ -15,7 +15,10 @@ export const uploadAudio = async (file) => {
 };
 
 
-export const getHistory = async () => {
-  const res = await apiClient.get("/transcribe/history");
+// Returns { items, nextCursor }; pass nextCursor back to load older records
+export const getHistory = async (cursor) => {
+  const res = await apiClient.get("/transcribe/history", {
+    params: cursor ? { cursor } : {},
+  });
   return res.data;
 };
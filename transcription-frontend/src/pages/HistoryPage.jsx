@@ -5,7 +5,9 @@ import { Clock, FileText } from 'lucide-react';
 
 const HistoryPage = () => {
   const [history, setHistory] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState(null);
 
   const royalBlue = '#002D62';
@@ -15,7 +17,8 @@ const HistoryPage = () => {
     const fetchHistory = async () => {
       try {
         const data = await getHistory();
-        setHistory(data); // Use only real backend data
+        setHistory(data.items); // Use only real backend data
+        setNextCursor(data.nextCursor);
       } catch (err) {
         setError(err.message || 'Could not fetch history data.');
       } finally {
@@ -26,6 +29,19 @@ const HistoryPage = () => {
     fetchHistory();
   }, []);
 
+  const loadMore = async () => {
+    setLoadingMore(true);
+    try {
+      const data = await getHistory(nextCursor);
+      setHistory((previous) => [...previous, ...data.items]);
+      setNextCursor(data.nextCursor);
+    } catch (err) {
+      setError(err.message || 'Could not fetch history data.');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   // -----------------------------
   // Loading State
   // -----------------------------
@@ -106,7 +122,7 @@ const HistoryPage = () => {
                     className="badge p-2 rounded-pill"
                     style={{ backgroundColor: royalBlue, color: 'white' }}
                   >
-                    {item.analysisPreview.split(':')[0]}
+                    {item.analysisPreview ? item.analysisPreview.split(':')[0] : 'Analysis pending'}
                   </span>
 
                   <button
@@ -121,6 +137,18 @@ const HistoryPage = () => {
           ))}
         </div>
       )}
+
+      {nextCursor && (
+        <div className="text-center mt-5">
+          <button
+            className="btn btn-outline-primary fw-bold px-4"
+            onClick={loadMore}
+            disabled={loadingMore}
+          >
+            {loadingMore ? 'Loading...' : 'Load More'}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
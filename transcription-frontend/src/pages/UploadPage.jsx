@@ -55,11 +55,11 @@ const UploadPage = () => {
     const response = await uploadAudio(file);
     console.log('API Response:', response); // Debugging
 
-    // Assuming response has "analysis", "transcription", and "recordId"
+    // Response has "transcription", "analysis", "recordId" and, from Gemini, "title" and "keyPoints"
     const result = {
       transcriptionText: response.transcription,  // Use transcription field
       summary: extractSummary(response.analysis), // Extract summary from analysis
-      keywords: extractKeywords(response.transcription), // Extract keywords (if applicable)
+      keywords: response.keyPoints?.length ? response.keyPoints : extractKeywords(response.transcription),
       recordId: response.recordId,
     };
     setResult(result);
@@ -74,8 +74,12 @@ const UploadPage = () => {
 
 // Helper to extract summary from analysis
 const extractSummary = (analysis) => {
+  if (!analysis) {
+    return 'No summary available.';
+  }
+  // Gemini sends the summary on its own; OpenAI analyses carry a "Summary:" section
   const summaryIndex = analysis.indexOf('Summary:');
-  return summaryIndex !== -1 ? analysis.substring(summaryIndex + 9).trim() : 'No summary available.';
+  return summaryIndex !== -1 ? analysis.substring(summaryIndex + 9).trim() : analysis;
 };
 
 // You can add logic to extract keywords from transcription if needed.